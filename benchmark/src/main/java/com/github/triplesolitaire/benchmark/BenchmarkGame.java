@@ -0,0 +1,39 @@
+package com.github.triplesolitaire.benchmark;
+
+import com.github.triplesolitaire.engine.Cards;
+import com.github.triplesolitaire.engine.Game;
+
+/**
+ * Game without a UI which can be set up in specific positions for benchmarking
+ */
+class BenchmarkGame extends Game {
+    /**
+     * Runs auto play until no more auto play moves are found
+     */
+    void autoPlay() {
+        moveCompleted();
+    }
+
+    /**
+     * Lays out the cards such that every card can be auto played: the first twelve lanes each contain a full suit
+     * cascade from king (bottom) to ace (top) and all other locations are empty. The game is marked in progress so
+     * that auto play is enabled
+     */
+    void setUpAutoPlayCascade() {
+        stock.clear();
+        waste.clear();
+        moves.clear();
+        for (int foundationIndex = 0; foundationIndex < 12; foundationIndex++)
+            foundation[foundationIndex] = Cards.NONE;
+        for (int laneIndex = 0; laneIndex < 13; laneIndex++) {
+            lane[laneIndex].clear();
+            if (laneIndex == 12)
+                continue;
+            for (int rank = Cards.KING; rank >= Cards.ACE; rank--)
+                lane[laneIndex].addCascade(Cards.create(laneIndex / 4, laneIndex % 4, rank));
+        }
+        rebuildIndexes();
+        moveCount = 1;
+        resumeGame();
+    }
+}
@@ -0,0 +1,168 @@
+package com.github.triplesolitaire.benchmark;
+
+import com.github.triplesolitaire.engine.Game;
+import com.github.triplesolitaire.engine.Move;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks applying each type of {@link Move} to a {@link Game}. To keep the game state (and the undo stack) from
+ * drifting between invocations, each benchmark applies a move and then undoes it, measuring both the move type and its
+ * matching undo type.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveBenchmark {
+    /**
+     * Game with every card laid out so that all 156 cards are auto played to the foundation in a single chain
+     */
+    @State(Scope.Thread)
+    public static class AutoPlayCascadeState {
+        /**
+         * Game being benchmarked
+         */
+        final BenchmarkGame game = new BenchmarkGame();
+
+        /**
+         * Enables auto play so that every card in the cascade is auto played
+         */
+        @Setup(Level.Trial)
+        public void setUpTrial() {
+            game.setAutoPlayMode(Game.AutoPlayMode.OBVIOUS);
+        }
+
+        /**
+         * Lays out the cards again as the previous invocation played them all to the foundation
+         */
+        @Setup(Level.Invocation)
+        public void setUpInvocation() {
+            game.setUpAutoPlayCascade();
+        }
+    }
+
+    /**
+     * Freshly dealt game with a single card already moved so that a lane is ready to be flipped
+     */
+    @State(Scope.Thread)
+    public static class DealtGameState {
+        /**
+         * Game being benchmarked
+         */
+        final Game game = new Game();
+        /**
+         * Move of the top card of lane 4 to the first foundation
+         */
+        Move autoPlayMove;
+        /**
+         * Flip of the top stack card of lane 2, whose cascade is empty
+         */
+        Move flipMove;
+        /**
+         * Move of the top card of lane 3 onto lane 5
+         */
+        Move playerMove;
+        /**
+         * Click of the stock
+         */
+        Move stockMove;
+
+        /**
+         * Deals a fixed game and empties the cascade of lane 2. Note that moves are not checked for validity, so they
+         * only need to be consistent with the dealt cards
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            game.newGame(MoveBenchmark.SEED);
+            final String laneTwoCard = game.buildCascadeString(2, 1);
+            game.move(new Move(Move.Type.PLAYER_MOVE, 13, 2, laneTwoCard));
+            autoPlayMove = new Move(Move.Type.AUTO_PLAY, -1, 4, game.buildCascadeString(4, 1));
+            flipMove = new Move(Move.Type.FLIP, 2);
+            playerMove = new Move(Move.Type.PLAYER_MOVE, 5, 3, game.buildCascadeString(3, 1));
+            stockMove = new Move(Move.Type.STOCK);
+        }
+    }
+
+    /**
+     * Seed used to deal the benchmarked game
+     */
+    static final long SEED = 0x5eedL;
+
+    /**
+     * Auto plays all 156 cards to the foundation, applying the whole chain of AUTO_PLAY moves in a single pass
+     *
+     * @param state Game laid out for a full auto play cascade
+     * @return The game, so that its state is not optimized away
+     */
+    @Benchmark
+    public Game autoPlayCascade(final AutoPlayCascadeState state) {
+        state.game.autoPlay();
+        return state.game;
+    }
+
+    /**
+     * Applies and undoes a single AUTO_PLAY move (AUTO_PLAY and UNDO)
+     *
+     * @param state Dealt game
+     * @return The game, so that its state is not optimized away
+     */
+    @Benchmark
+    public Game autoPlayMove(final DealtGameState state) {
+        state.game.move(state.autoPlayMove);
+        state.game.undo();
+        return state.game;
+    }
+
+    /**
+     * Flips over a card and undoes it (FLIP and UNDO_FLIP)
+     *
+     * @param state Dealt game
+     * @return The game, so that its state is not optimized away
+     */
+    @Benchmark
+    public Game flip(final DealtGameState state) {
+        state.game.move(state.flipMove);
+        state.game.undo();
+        return state.game;
+    }
+
+    /**
+     * Applies and undoes a player move between lanes (PLAYER_MOVE and UNDO)
+     *
+     * @param state Dealt game
+     * @return The game, so that its state is not optimized away
+     */
+    @Benchmark
+    public Game playerMove(final DealtGameState state) {
+        state.game.move(state.playerMove);
+        state.game.undo();
+        return state.game;
+    }
+
+    /**
+     * Clicks the stock and undoes it (STOCK and UNDO_STOCK)
+     *
+     * @param state Dealt game
+     * @return The game, so that its state is not optimized away
+     */
+    @Benchmark
+    public Game stock(final DealtGameState state) {
+        state.game.move(state.stockMove);
+        state.game.undo();
+        return state.game;
+    }
+}
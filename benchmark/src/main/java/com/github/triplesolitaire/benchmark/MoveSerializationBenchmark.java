@@ -0,0 +1,76 @@
+package com.github.triplesolitaire.benchmark;
+
+import com.github.triplesolitaire.engine.Cards;
+import com.github.triplesolitaire.engine.Move;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks converting moves to and from their String form (as used to save the undo stack)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveSerializationBenchmark {
+    /**
+     * Number of cards in the benchmarked move
+     */
+    @Param({"1", "3", "13"})
+    public int cascadeSize;
+    /**
+     * Move being benchmarked
+     */
+    private Move move;
+    /**
+     * String form of the benchmarked move
+     */
+    private String moveString;
+
+    /**
+     * Creates a player move of a king-down cascade of the requested size
+     */
+    @Setup
+    public void setUp() {
+        final int[] cascade = new int[cascadeSize];
+        for (int cascadeIndex = 0; cascadeIndex < cascadeSize; cascadeIndex++)
+            cascade[cascadeIndex] = Cards.create(1, cascadeIndex % 2 == 0 ? Cards.SPADES : Cards.HEARTS, Cards.KING
+                    - cascadeIndex);
+        move = new Move(Move.Type.PLAYER_MOVE, 7, 12, cascade);
+        moveString = move.toString();
+    }
+
+    /**
+     * Formats a move to its String form
+     *
+     * @return The formatted move
+     */
+    @Benchmark
+    public String format() {
+        return move.toString();
+    }
+
+    /**
+     * Parses a move from its String form
+     *
+     * @return The parsed move
+     */
+    @Benchmark
+    public Move parse() {
+        return new Move(moveString);
+    }
+}
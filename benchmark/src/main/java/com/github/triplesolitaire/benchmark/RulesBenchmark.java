@@ -0,0 +1,81 @@
+package com.github.triplesolitaire.benchmark;
+
+import com.github.triplesolitaire.engine.Cards;
+import com.github.triplesolitaire.engine.Game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the drop acceptance rules. While a card is being dragged, every lane and foundation is asked whether it
+ * accepts the card, so each invocation checks a single card against all 13 lanes and 12 foundations.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RulesBenchmark {
+    /**
+     * Game being benchmarked
+     */
+    private final Game game = new Game();
+    /**
+     * Index into the deck of the next card to drag
+     */
+    private int nextCard = 0;
+
+    /**
+     * Deals a fixed game
+     */
+    @Setup
+    public void setUp() {
+        game.newGame(MoveBenchmark.SEED);
+    }
+
+    /**
+     * Gets the next card to drag, cycling through every card in the deck
+     *
+     * @return The next card to drag
+     */
+    private int nextCard() {
+        nextCard = (nextCard + 1) % Cards.DECK_SIZE;
+        return Cards.create(nextCard / 52, (nextCard / 13) % 4, nextCard % 13 + 1);
+    }
+
+    /**
+     * Checks whether each lane accepts the next card
+     *
+     * @param blackhole Consumes the results
+     */
+    @Benchmark
+    public void acceptCascadeDrop(final Blackhole blackhole) {
+        final int card = nextCard();
+        for (int laneIndex = 1; laneIndex <= 13; laneIndex++)
+            blackhole.consume(game.acceptCascadeDrop(laneIndex, card));
+    }
+
+    /**
+     * Checks whether each foundation accepts the next card
+     *
+     * @param blackhole Consumes the results
+     */
+    @Benchmark
+    public void acceptFoundationDrop(final Blackhole blackhole) {
+        final int card = nextCard();
+        for (int foundationIndex = -1; foundationIndex >= -12; foundationIndex--)
+            blackhole.consume(game.acceptFoundationDrop(foundationIndex, card));
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.triplesolitaire.benchmark;
+
+import com.github.triplesolitaire.engine.Game;
+import com.github.triplesolitaire.engine.Solver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks solving a freshly dealt game with the default {@link Solver} budget
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SolverBenchmark {
+    /**
+     * Game being solved
+     */
+    private final Game game = new Game();
+    /**
+     * Solver, reused across invocations
+     */
+    private final Solver solver = new Solver();
+
+    /**
+     * Deals a fixed game
+     */
+    @Setup
+    public void setUp() {
+        game.newGame(MoveBenchmark.SEED);
+    }
+
+    /**
+     * Solves the dealt game
+     *
+     * @return The result of the search
+     */
+    @Benchmark
+    public Solver.Result solve() {
+        return solver.solve(game);
+    }
+}
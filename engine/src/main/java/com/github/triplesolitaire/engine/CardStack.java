@@ -0,0 +1,108 @@
+package com.github.triplesolitaire.engine;
+
+/**
+ * Fixed-capacity, array-backed stack of cards (encoded as described in {@link Cards}), used for the stock and waste.
+ */
+public class CardStack {
+    /**
+     * Cards in this stack, starting with the bottom card
+     */
+    private final int[] cards = new int[Cards.DECK_SIZE];
+    /**
+     * Number of cards in this stack
+     */
+    private int size = 0;
+
+    /**
+     * Creates a new empty CardStack
+     */
+    public CardStack() {
+    }
+
+    /**
+     * Creates a CardStack with the given cards
+     *
+     * @param arrayStack Cards to set as the stack, where the last card is the top of the stack
+     */
+    public CardStack(final int[] arrayStack) {
+        System.arraycopy(arrayStack, 0, cards, 0, arrayStack.length);
+        size = arrayStack.length;
+    }
+
+    /**
+     * Removes all cards from this stack
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Replaces the contents of this stack with the contents of the given stack. Useful for cheaply saving and restoring
+     * the state of a stack
+     *
+     * @param other CardStack to copy from
+     */
+    public void copyFrom(final CardStack other) {
+        System.arraycopy(other.cards, 0, cards, 0, other.size);
+        size = other.size;
+    }
+
+    /**
+     * Whether this stack is empty
+     *
+     * @return Whether there are no cards in this stack
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets a card from the stack without removing it
+     *
+     * @param depth Zero based depth of the card, where 0 is the top card
+     * @return The requested card or Cards.NONE if there is no card at the given depth
+     */
+    public int peek(final int depth) {
+        if (depth >= size)
+            return Cards.NONE;
+        return cards[size - 1 - depth];
+    }
+
+    /**
+     * Removes the top card of this stack. Should only be called when the stack is not empty
+     *
+     * @return The removed card
+     */
+    public int pop() {
+        return cards[--size];
+    }
+
+    /**
+     * Adds a card to the top of this stack
+     *
+     * @param card Card to add
+     */
+    public void push(final int card) {
+        cards[size++] = card;
+    }
+
+    /**
+     * Gets the number of cards in this stack
+     *
+     * @return The number of cards in this stack
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Copies this stack into a new array
+     *
+     * @return The cards in this stack, where the last card is the top of the stack
+     */
+    public int[] toArray() {
+        final int[] array = new int[size];
+        System.arraycopy(cards, 0, array, 0, size);
+        return array;
+    }
+}
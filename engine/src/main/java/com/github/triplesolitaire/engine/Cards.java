@@ -0,0 +1,211 @@
+package com.github.triplesolitaire.engine;
+
+/**
+ * Primitive encoding of the cards used in a Triple Solitaire game. Each card is a small int (fitting in a byte) laid out
+ * as follows:
+ * <ul>
+ * <li>Bits 0-3: Rank, from ace at 1 to king at 13</li>
+ * <li>Bits 4-5: Suit (clubs, diamonds, hearts, spades)</li>
+ * <li>Bits 6-7: Deck copy (0 through 2)</li>
+ * </ul>
+ * As no card has a rank of zero, {@link #NONE} (0) is used to represent the absence of a card. String names (i.e.,
+ * 'hearts12') should only be used at the UI boundary, such as for logging, as drawables are looked up by face.
+ */
+public final class Cards {
+    /**
+     * Value representing no card (i.e., an empty foundation)
+     */
+    public static final int NONE = 0;
+    /**
+     * Rank of an ace
+     */
+    public static final int ACE = 1;
+    /**
+     * Rank of a king
+     */
+    public static final int KING = 13;
+    /**
+     * Suit index of clubs
+     */
+    public static final int CLUBS = 0;
+    /**
+     * Suit index of diamonds
+     */
+    public static final int DIAMONDS = 1;
+    /**
+     * Suit index of hearts
+     */
+    public static final int HEARTS = 2;
+    /**
+     * Suit index of spades
+     */
+    public static final int SPADES = 3;
+    /**
+     * Number of decks used in a game
+     */
+    public static final int DECK_COUNT = 3;
+    /**
+     * Total number of cards used in a game
+     */
+    public static final int DECK_SIZE = DECK_COUNT * 4 * KING;
+    /**
+     * Number of distinct faces (including unused values of the face encoding), for arrays indexed by face
+     */
+    public static final int FACE_COUNT = 1 << 6;
+    /**
+     * Mask used to get the rank of a card
+     */
+    private static final int RANK_MASK = 0x0F;
+    /**
+     * Shift of the suit bits
+     */
+    private static final int SUIT_SHIFT = 4;
+    /**
+     * Shift of the deck copy bits
+     */
+    private static final int DECK_SHIFT = 6;
+    /**
+     * Mask used to get the face (suit and rank, ignoring the deck copy) of a card
+     */
+    private static final int FACE_MASK = 0x3F;
+    /**
+     * Names of each suit, in suit index order
+     */
+    private static final String[] SUIT_NAMES = {"clubs", "diamonds", "hearts", "spades"};
+    /**
+     * Names of each card face (i.e., 'hearts12'), indexed by face. Doubles as the image file name of each card
+     */
+    private static final String[] NAMES = new String[FACE_MASK + 1];
+
+    static {
+        for (int suit = CLUBS; suit <= SPADES; suit++)
+            for (int rank = ACE; rank <= KING; rank++)
+                NAMES[suit << SUIT_SHIFT | rank] = SUIT_NAMES[suit] + rank;
+    }
+
+    /**
+     * Creates a card from its components
+     *
+     * @param deck Deck copy (0 through 2)
+     * @param suit Suit index (CLUBS through SPADES)
+     * @param rank Rank, from ace at 1 to king at 13
+     * @return The encoded card
+     */
+    public static int create(final int deck, final int suit, final int rank) {
+        return deck << DECK_SHIFT | suit << SUIT_SHIFT | rank;
+    }
+
+    /**
+     * Gets the deck copy of the given card
+     *
+     * @param card Card to get the deck copy from
+     * @return The deck copy (0 through 2)
+     */
+    public static int getDeck(final int card) {
+        return card >> DECK_SHIFT;
+    }
+
+    /**
+     * Gets the face (suit and rank, ignoring the deck copy) of the given card. Cards with the same face are
+     * interchangeable as far as the game rules are concerned
+     *
+     * @param card Card to get the face from
+     * @return The face of the card
+     */
+    public static int getFace(final int card) {
+        return card & FACE_MASK;
+    }
+
+    /**
+     * Gets the name of the given card, which is also the name of its drawable
+     *
+     * @param card Card to get the name of
+     * @return The name of the card (i.e., 'hearts12') or null if the card is NONE
+     */
+    public static String getName(final int card) {
+        return NAMES[card & FACE_MASK];
+    }
+
+    /**
+     * Gets the rank of the given card
+     *
+     * @param card Card to get the rank from
+     * @return The rank of the card, ranging from ace at 1 to king at 13 (or 0 for NONE)
+     */
+    public static int getRank(final int card) {
+        return card & RANK_MASK;
+    }
+
+    /**
+     * Gets the suit of the given card
+     *
+     * @param card Card to get the suit from
+     * @return The suit index of the card (CLUBS through SPADES)
+     */
+    public static int getSuit(final int card) {
+        return (card >> SUIT_SHIFT) & 0x3;
+    }
+
+    /**
+     * Whether the given card is red (diamonds or hearts)
+     *
+     * @param card Card to check
+     * @return Whether the card is red
+     */
+    public static boolean isRed(final int card) {
+        // Suits 1 (diamonds) and 2 (hearts) are the only suits with the second bit set after adding one
+        return ((getSuit(card) + 1) & 0x2) != 0;
+    }
+
+    /**
+     * Whether the given value is a card: a rank from ace through king of a deck copy from 0 through 2
+     *
+     * @param card Value to check
+     * @return Whether the value is a valid card (NONE is not)
+     */
+    public static boolean isValid(final int card) {
+        return getRank(card) >= ACE && getRank(card) <= KING && card >= 0 && getDeck(card) < DECK_COUNT;
+    }
+
+    /**
+     * Whether the given card can be placed on top of the given cascade card (one rank lower and of the opposite colour)
+     *
+     * @param card        Card to be placed
+     * @param cascadeCard Top card of the cascade
+     * @return Whether the card can be placed on the cascade card
+     */
+    public static boolean canStackOn(final int card, final int cascadeCard) {
+        return getRank(card) == getRank(cascadeCard) - 1 && isRed(card) != isRed(cascadeCard);
+    }
+
+    /**
+     * Whether the given card can be placed on the given foundation card
+     *
+     * @param card           Card to be placed
+     * @param foundationCard Top card of the foundation or NONE if the foundation is empty
+     * @return Whether the card can be placed on the foundation
+     */
+    public static boolean canFound(final int card, final int foundationCard) {
+        if (foundationCard == NONE)
+            return getRank(card) == ACE;
+        return getFace(card) == getFace(foundationCard) + 1;
+    }
+
+    /**
+     * Returns the previous (one rank less) card in the same suit as the given card
+     *
+     * @param card Card to 'decrement'
+     * @return A card one rank less and in the same suit as the given card, or NONE if the card was an ace
+     */
+    public static int prevInSuit(final int card) {
+        if (getRank(card) == ACE)
+            return NONE;
+        return card - 1;
+    }
+
+    /**
+     * This class cannot be instantiated
+     */
+    private Cards() {
+    }
+}
@@ -0,0 +1,117 @@
+package com.github.triplesolitaire.engine;
+
+/**
+ * Snapshots of a game's position taken every {@link #getInterval() interval} moves along its undo/redo timeline, so
+ * that jumping to any point of the timeline only replays the moves since the nearest earlier checkpoint. Each snapshot
+ * takes roughly 10KB, so the number of snapshots is bounded: once the bound is reached, every other snapshot is dropped
+ * and the interval doubles.
+ */
+class Checkpoints {
+    /**
+     * Default maximum number of snapshots
+     */
+    static final int DEFAULT_MAX_CHECKPOINTS = 16;
+    /**
+     * Number of moves between snapshots before any have been dropped
+     */
+    private static final int INITIAL_INTERVAL = 16;
+    /**
+     * Number of valid snapshots, for positions 0, interval, 2 * interval, etc.
+     */
+    private int count = 0;
+    /**
+     * Number of moves between snapshots
+     */
+    private int interval = Checkpoints.INITIAL_INTERVAL;
+    /**
+     * Snapshots, where snapshots past count are kept only to be reused
+     */
+    private Game[] snapshots = new Game[Checkpoints.DEFAULT_MAX_CHECKPOINTS];
+
+    /**
+     * Removes all snapshots, resetting the interval
+     */
+    void clear() {
+        count = 0;
+        interval = Checkpoints.INITIAL_INTERVAL;
+    }
+
+    /**
+     * Drops every other snapshot, keeping those at multiples of twice the interval, and doubles the interval. The
+     * dropped snapshots are moved past count for reuse
+     */
+    private void compact() {
+        for (int snapshotIndex = 1; 2 * snapshotIndex < count; snapshotIndex++) {
+            final Game dropped = snapshots[snapshotIndex];
+            snapshots[snapshotIndex] = snapshots[2 * snapshotIndex];
+            snapshots[2 * snapshotIndex] = dropped;
+        }
+        count = (count + 1) / 2;
+        interval *= 2;
+    }
+
+    /**
+     * Getter for the number of moves between snapshots
+     *
+     * @return The number of moves between snapshots
+     */
+    int getInterval() {
+        return interval;
+    }
+
+    /**
+     * Takes a snapshot of the given game if the given position is the next one due a snapshot
+     *
+     * @param game     Game to take a snapshot of
+     * @param position Position of the game along its timeline (i.e., the number of moves on its undo stack)
+     */
+    void record(final Game game, final int position) {
+        if (position != count * interval)
+            return;
+        if (count == snapshots.length) {
+            compact();
+            if (position != count * interval)
+                return;
+        }
+        if (snapshots[count] == null)
+            snapshots[count] = new Game();
+        snapshots[count].copyFrom(game);
+        count++;
+    }
+
+    /**
+     * Restores the given game to the latest snapshot at or before the given position
+     *
+     * @param game     Game to restore
+     * @param position Position of the timeline to restore towards
+     * @return The position of the restored snapshot
+     */
+    int restore(final Game game, final int position) {
+        final int snapshotIndex = Math.min(count - 1, position / interval);
+        game.copyFrom(snapshots[snapshotIndex]);
+        return snapshotIndex * interval;
+    }
+
+    /**
+     * Sets the maximum number of snapshots, compacting the snapshots (doubling the interval each time) until there are
+     * no more than the maximum. The next snapshot due then never falls before a position already passed
+     *
+     * @param maxCheckpoints Maximum number of snapshots, at least 1
+     */
+    void setMaxCheckpoints(final int maxCheckpoints) {
+        while (count > maxCheckpoints)
+            compact();
+        final Game[] resizedSnapshots = new Game[maxCheckpoints];
+        System.arraycopy(snapshots, 0, resizedSnapshots, 0, Math.min(snapshots.length, maxCheckpoints));
+        snapshots = resizedSnapshots;
+    }
+
+    /**
+     * Drops the snapshots after the given position, as the timeline after it has been replaced
+     *
+     * @param position Last position of the timeline which is unchanged
+     */
+    void truncate(final int position) {
+        count = Math.min(count, position / interval + 1);
+    }
+}
@@ -0,0 +1,1509 @@
+package com.github.triplesolitaire.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Platform independent rules and state of a Triple Solitaire game. All UI updates are issued through a
+ * {@link GameListener}, allowing games to be played (or simulated) without any UI at all.
+ */
+public class Game {
+    /**
+     * Enum representing the auto play modes
+     */
+    public enum AutoPlayMode {
+        /**
+         * Never auto play cards to the foundation
+         */
+        NEVER, /**
+         * Auto play any card that can be played to the foundation
+         */
+        OBVIOUS, /**
+         * Only auto play once all cards have been flipped over and the stock and waste have been played through
+         */
+        WON
+    }
+
+    /**
+     * Listener which ignores all callbacks, used for games without a UI
+     */
+    private static final GameListener EMPTY_LISTENER = new GameListener() {
+        @Override
+        public void addCascade(final int laneIndex, final int[] cascadeToAdd) {
+        }
+
+        @Override
+        public void animate(final Move move) {
+        }
+
+        @Override
+        public void decrementCascadeSize(final int laneIndex, final int removeCount) {
+        }
+
+        @Override
+        public void flipOverTopStack(final int laneIndex, final int card) {
+        }
+
+        @Override
+        public void setStackSize(final int laneIndex, final int newStackSize) {
+        }
+
+        @Override
+        public void triggerWin() {
+        }
+
+        @Override
+        public void updateFoundationUI(final int foundationIndex) {
+        }
+
+        @Override
+        public void updateMenuUI() {
+        }
+
+        @Override
+        public void updateMoveCount() {
+        }
+
+        @Override
+        public void updateStockUI() {
+        }
+
+        @Override
+        public void updateTime() {
+        }
+
+        @Override
+        public void updateWasteUI() {
+        }
+    };
+
+    /**
+     * Whether the empty lane should accept a dropped card/cascade
+     *
+     * @param laneIndex  One-based index (1 through 13) of the lane drop target
+     * @param topNewCard Top card of the cascade/the card to be dropped
+     * @return Whether the lane should accept the drop
+     */
+    public static boolean acceptLaneDrop(final int laneIndex, final int topNewCard) {
+        return Cards.getRank(topNewCard) == Cards.KING;
+    }
+
+    /**
+     * Whether auto play moves should be animated
+     */
+    private boolean animateAutoPlay = false;
+    /**
+     * Whether undo moves should be animated
+     */
+    private boolean animateUndo = false;
+    /**
+     * Whether face down cards should be automatically flipped over
+     */
+    private boolean autoFlip = false;
+    /**
+     * Which cards should be automatically played to the foundation
+     */
+    private AutoPlayMode autoPlayMode = AutoPlayMode.NEVER;
+    /**
+     * Whether a lane should be excluded from autoplay (i.e., if the user just dragged a card from the foundation to
+     * that column
+     */
+    protected boolean[] autoplayLaneIndexLocked = new boolean[13];
+    /**
+     * Snapshots of the position along the undo/redo timeline, used to jump along the timeline quickly
+     */
+    private final Checkpoints checkpoints = new Checkpoints();
+    /**
+     * Deal number of the current game
+     */
+    private long deal = 0;
+    /**
+     * Cards in the Foundation, where Cards.NONE represents an empty foundation
+     */
+    protected int[] foundation = new int[12];
+    /**
+     * Whether a game is in progress
+     */
+    private boolean gameInProgress = false;
+    /**
+     * Zobrist hash of the current position, kept up to date by {@link #apply(Move)}. Subclasses which change the
+     * position directly should call {@link #rebuildIndexes()}
+     */
+    protected long hash = 0;
+    /**
+     * Index of the lanes whose cascade holds each card face, as a bit mask where bit 0 is lane 1. Cascades descend one
+     * rank at a time, so each lane holds a face at most once, at a position given by its rank. Together with
+     * {@link #wantedByLane}, this pairs up the cascade cards with the lanes accepting them without scanning the cascades
+     */
+    private final int[] heldByLane = new int[Cards.FACE_COUNT];
+    /**
+     * Hint engine, created the first time a hint is requested
+     */
+    private HintEngine hintEngine = null;
+    /**
+     * Data (stack and cascade information) for each lane
+     */
+    protected final LaneData[] lane = new LaneData[13];
+    /**
+     * Listener to issue UI update callbacks
+     */
+    private final GameListener listener;
+    /**
+     * Number of player moves in the current game
+     */
+    protected int moveCount = 0;
+    /**
+     * Stack of all undoable moves, packed as described in {@link MoveStack}
+     */
+    protected final MoveStack moves = new MoveStack();
+    /**
+     * Number of auto play moves that are pending animation complete
+     */
+    private int pendingMoves = 0;
+    /**
+     * Represents the cards in the stock
+     */
+    protected final CardStack stock = new CardStack();
+    /**
+     * How much time has elapsed in the current game
+     */
+    protected int timeInSeconds = 0;
+    /**
+     * Represents the cards in the waste
+     */
+    protected final CardStack waste = new CardStack();
+    /**
+     * Index of the foundations accepting each card face, as a bit mask where bit 0 is the first foundation
+     */
+    private final int[] wantedByFoundation = new int[Cards.FACE_COUNT];
+    /**
+     * Index of the lanes whose top cascade card accepts each card face, as a bit mask where bit 0 is lane 1
+     */
+    private final int[] wantedByLane = new int[Cards.FACE_COUNT];
+
+    /**
+     * Creates a new Game without a UI
+     */
+    public Game() {
+        this(Game.EMPTY_LISTENER);
+    }
+
+    /**
+     * Creates a new Game
+     *
+     * @param listener Listener to send UI update callbacks
+     */
+    public Game(final GameListener listener) {
+        this.listener = listener;
+        for (int laneIndex = 0; laneIndex < 13; laneIndex++)
+            lane[laneIndex] = new LaneData();
+    }
+
+    /**
+     * Whether the given lane should accept the given dropped card/cascade
+     *
+     * @param laneIndex     One-based index (1 through 13) of the lane drop target
+     * @param bottomNewCard Bottom card of the cascade/the card to be dropped
+     * @return Whether the lane should accept the drop
+     */
+    public boolean acceptCascadeDrop(final int laneIndex, final int bottomNewCard) {
+        return (wantedByLane[Cards.getFace(bottomNewCard)] & 1 << laneIndex - 1) != 0;
+    }
+
+    /**
+     * Whether the given foundation should accept the given dropped card. Note, that callers should not offer
+     * multi-card drops as they are never accepted on the foundation
+     *
+     * @param foundationIndex Negative One-based index (-1 through -12) of the foundation drop target
+     * @param newCard         The card to be dropped
+     * @return Whether the foundation should accept the drop
+     */
+    public boolean acceptFoundationDrop(final int foundationIndex, final int newCard) {
+        return (wantedByFoundation[Cards.getFace(newCard)] & 1 << -1 * foundationIndex - 1) != 0;
+    }
+
+    /**
+     * Adds every legal move of the given cards to the given list. Single cards can move to any accepting foundation
+     * (other than the one they came from) and any cards can move to any other accepting lane
+     *
+     * @param fromIndex  Source location in Move format
+     * @param cascade    Cards to move, where the first card is the bottom card of the cascade
+     * @param legalMoves List to add the legal moves to
+     */
+    private void addLegalMoves(final int fromIndex, final int[] cascade, final List<Move> legalMoves) {
+        if (cascade.length == 1 && fromIndex >= 0)
+            for (int foundations = wantedByFoundation[Cards.getFace(cascade[0])]; foundations != 0;
+                 foundations &= foundations - 1)
+                legalMoves.add(new Move(Move.Type.PLAYER_MOVE, -1 * (Integer.numberOfTrailingZeros(foundations) + 1),
+                        fromIndex, cascade));
+        int lanes = getAcceptingLanes(cascade[0]);
+        if (fromIndex > 0)
+            lanes &= ~(1 << fromIndex - 1);
+        for (; lanes != 0; lanes &= lanes - 1)
+            legalMoves.add(new Move(Move.Type.PLAYER_MOVE, Integer.numberOfTrailingZeros(lanes) + 1, fromIndex,
+                    cascade));
+    }
+
+    /**
+     * Adds the given move to the undo stack and updates the UI if this is the first move in the undo stack
+     *
+     * @param move Move to add to the undo stack
+     */
+    private void addMoveToUndo(final Move move) {
+        final boolean couldRedo = moves.canRedo();
+        pushUndoable(move, false);
+        if (moves.size() == 1 || couldRedo != moves.canRedo())
+            listener.updateMenuUI();
+    }
+
+    /**
+     * Callback from the UI to inform us of animation completion
+     */
+    public void animationCompleted() {
+        pendingMoves--;
+        moveCompleted();
+    }
+
+    /**
+     * Applies the given move to the game state only: no UI callbacks are issued, the move is not added to the undo
+     * stack and no auto play is attempted. Moves are assumed to be valid.
+     *
+     * @param move Move to apply
+     * @return The move to add to the undo stack if this move should be undoable (i.e., STOCK moves with the cards
+     * moved from the stock to the waste filled in)
+     */
+    public Move apply(final Move move) {
+        switch (move.getType()) {
+            case STOCK:
+                hash ^= Zobrist.wasteSize(waste.size());
+                if (stock.isEmpty()) {
+                    // Flip all cards from the waste over into the stock
+                    while (!waste.isEmpty())
+                        stock.push(waste.pop());
+                    hash ^= Zobrist.wasteSize(0);
+                    return move;
+                }
+                // Move up to 3 cards from the stock to the waste
+                final int[] cards = new int[Math.min(3, stock.size())];
+                for (int wasteIndex = 0; wasteIndex < cards.length; wasteIndex++) {
+                    cards[wasteIndex] = stock.pop();
+                    waste.push(cards[wasteIndex]);
+                }
+                hash ^= Zobrist.wasteSize(waste.size());
+                return new Move(Move.Type.STOCK, cards);
+            case UNDO_STOCK:
+                hash ^= Zobrist.wasteSize(waste.size());
+                if (waste.isEmpty()) {
+                    // An empty waste means we had an empty stock right before
+                    // the stock click, so we move everything back to the waste
+                    while (!stock.isEmpty())
+                        waste.push(stock.pop());
+                } else {
+                    // We undo the move of cards from the stock to the waste
+                    final int[] undoCards = move.getCascade();
+                    for (int wasteIndex = undoCards.length - 1; wasteIndex >= 0; wasteIndex--) {
+                        stock.push(undoCards[wasteIndex]);
+                        waste.pop();
+                    }
+                }
+                hash ^= Zobrist.wasteSize(waste.size());
+                return move;
+            case FLIP:
+                final int flipLaneIndex = move.getToIndex() - 1;
+                hash ^= Zobrist.stack(flipLaneIndex, lane[flipLaneIndex].getStackSize());
+                final int newlyFlippedCard = lane[flipLaneIndex].flip();
+                hash ^= Zobrist.cascade(flipLaneIndex, newlyFlippedCard);
+                hash ^= Zobrist.stack(flipLaneIndex, lane[flipLaneIndex].getStackSize());
+                heldByLane[Cards.getFace(newlyFlippedCard)] |= 1 << flipLaneIndex;
+                indexLane(flipLaneIndex, Cards.NONE);
+                return move;
+            case UNDO_FLIP:
+                final int unflipLaneIndex = move.getToIndex() - 1;
+                final int flippedCard = lane[unflipLaneIndex].getTopCascadeCard();
+                hash ^= Zobrist.stack(unflipLaneIndex, lane[unflipLaneIndex].getStackSize());
+                hash ^= Zobrist.cascade(unflipLaneIndex, flippedCard);
+                lane[unflipLaneIndex].unflip();
+                hash ^= Zobrist.stack(unflipLaneIndex, lane[unflipLaneIndex].getStackSize());
+                heldByLane[Cards.getFace(flippedCard)] &= ~(1 << unflipLaneIndex);
+                indexLane(unflipLaneIndex, flippedCard);
+                return move;
+            default:
+                // Update game state at from location
+                if (move.getFromIndex() < 0) {
+                    final int foundationIndex = -1 * move.getFromIndex() - 1;
+                    final int oldFoundationCard = foundation[foundationIndex];
+                    foundation[foundationIndex] = Cards.prevInSuit(move.getCard());
+                    hash ^= Zobrist.foundation(foundationIndex, oldFoundationCard);
+                    hash ^= Zobrist.foundation(foundationIndex, foundation[foundationIndex]);
+                    indexFoundation(foundationIndex, oldFoundationCard);
+                } else if (move.getFromIndex() == 0) {
+                    hash ^= Zobrist.wasteSize(waste.size()) ^ Zobrist.talon(waste.pop());
+                    hash ^= Zobrist.wasteSize(waste.size());
+                } else {
+                    final int laneIndex = move.getFromIndex() - 1;
+                    final int oldTopCard = lane[laneIndex].getTopCascadeCard();
+                    for (final int card : move.getCascade()) {
+                        hash ^= Zobrist.cascade(laneIndex, card);
+                        heldByLane[Cards.getFace(card)] &= ~(1 << laneIndex);
+                    }
+                    lane[laneIndex].removeCascade(move.getCascade().length);
+                    indexLane(laneIndex, oldTopCard);
+                }
+                // Update game state at to location
+                if (move.getToIndex() < 0) {
+                    final int foundationIndex = -1 * move.getToIndex() - 1;
+                    final int oldFoundationCard = foundation[foundationIndex];
+                    foundation[foundationIndex] = move.getCard();
+                    hash ^= Zobrist.foundation(foundationIndex, oldFoundationCard);
+                    hash ^= Zobrist.foundation(foundationIndex, foundation[foundationIndex]);
+                    indexFoundation(foundationIndex, oldFoundationCard);
+                } else if (move.getToIndex() == 0) {
+                    hash ^= Zobrist.wasteSize(waste.size()) ^ Zobrist.talon(move.getCard());
+                    waste.push(move.getCard());
+                    hash ^= Zobrist.wasteSize(waste.size());
+                } else {
+                    final int laneIndex = move.getToIndex() - 1;
+                    final int oldTopCard = lane[laneIndex].getTopCascadeCard();
+                    for (final int card : move.getCascade()) {
+                        hash ^= Zobrist.cascade(laneIndex, card);
+                        heldByLane[Cards.getFace(card)] |= 1 << laneIndex;
+                    }
+                    lane[laneIndex].addCascade(move.getCascade());
+                    indexLane(laneIndex, oldTopCard);
+                }
+                return move;
+        }
+    }
+
+    /**
+     * Attempts to auto play the first card in the given cascade to the foundation (moving from -1 to -12 i.e., left to
+     * right)
+     *
+     * @param laneIndex One-based index (1 through 13)
+     * @return Whether an auto play was found
+     */
+    public boolean attemptAutoMoveFromCascadeToFoundation(final int laneIndex) {
+        final Move autoPlayMove = findAutoMoveFromCascadeToFoundation(laneIndex);
+        if (autoPlayMove == null)
+            return false;
+        move(autoPlayMove);
+        return true;
+    }
+
+    /**
+     * Attempts to auto play the first card in the waste to the foundation (moving from -1 to -12 i.e., left to right)
+     *
+     * @return Whether an auto play was found
+     */
+    public boolean attemptAutoMoveFromWasteToFoundation() {
+        final Move autoPlayMove = findAutoMoveFromWasteToFoundation();
+        if (autoPlayMove == null)
+            return false;
+        move(autoPlayMove);
+        return true;
+    }
+
+    /**
+     * Using the auto flip and auto play settings, auto plays cards. Animated auto plays are made a single card at a
+     * time, each animation's completion triggering the next; otherwise, the whole chain is applied at once
+     */
+    private void autoPlay() {
+        if (!gameInProgress)
+            return;
+        if (!animateAutoPlay) {
+            autoPlayChain();
+            return;
+        }
+        final Move autoPlayMove = findAutoPlayMove();
+        if (autoPlayMove != null)
+            move(autoPlayMove);
+    }
+
+    /**
+     * Applies the whole chain of auto play moves (flips and plays to the foundation) at once, each found by
+     * {@link #findAutoPlayMove()} after applying the previous one, then updates the UI a single time. The chain is
+     * added to the undo stack as a group, so that it is undone and redone as a whole, and passed on with its moves
+     * after the first marked as grouped, so that the group survives saving and journaling the game
+     */
+    private void autoPlayChain() {
+        Move autoPlayMove = findAutoPlayMove();
+        if (autoPlayMove == null)
+            return;
+        final List<Move> chain = new ArrayList<>();
+        do {
+            pushUndoable(apply(autoPlayMove), !chain.isEmpty());
+            chain.add(chain.isEmpty() ? autoPlayMove : autoPlayMove.toGrouped());
+            // Matches the moves counted by moveStarted()
+            if (autoPlayMove.getType() == Move.Type.AUTO_PLAY)
+                moveCount++;
+            for (int laneIndex = 0; laneIndex < 13; laneIndex++)
+                autoplayLaneIndexLocked[laneIndex] = false;
+            autoPlayMove = findAutoPlayMove();
+        } while (autoPlayMove != null);
+        listener.updateMoveCount();
+        refreshUI();
+        onAutoPlayChain(chain);
+        checkForWin();
+    }
+
+    /**
+     * Builds a string containing a semicolon separated list of the top numCardsToInclude cards from the given lane
+     *
+     * @param laneIndex         One-based index (1 through 13)
+     * @param numCardsToInclude The number of cards to include
+     * @return A semicolon separated list of the cards in the requested cascade
+     */
+    public String buildCascadeString(final int laneIndex, final int numCardsToInclude) {
+        return Move.formatCascade(lane[laneIndex - 1].copyCascade(numCardsToInclude));
+    }
+
+    /**
+     * Whether there exists an undone move to redo
+     *
+     * @return Whether there exists a move to redo
+     */
+    public boolean canRedo() {
+        return moves.canRedo();
+    }
+
+    /**
+     * Whether there exists a move to undo
+     *
+     * @return Whether there exists a move to undo
+     */
+    public boolean canUndo() {
+        return !moves.isEmpty();
+    }
+
+    /**
+     * Checks to determine if the player has won the game (all foundations have a king). If so, pauses the game and
+     * informs the listener
+     */
+    protected void checkForWin() {
+        if (!isWon())
+            return;
+        pauseGame();
+        onGameWon();
+        listener.triggerWin();
+    }
+
+    /**
+     * Checks that the given move read from a journal can be made in the current position: that its cards are on top
+     * of its source and that its destination can hold them. A journal which does not match its deal (i.e., with a
+     * record missing) is then rejected rather than corrupting the position
+     *
+     * @param move Move read from the journal, other than an undo move
+     * @throws IllegalArgumentException If the move cannot be made in the current position
+     */
+    private void checkJournaledMove(final Move move) {
+        final int fromIndex = move.getFromIndex();
+        final int toIndex = move.getToIndex();
+        final int[] cascade = move.getCascade();
+        switch (move.getType()) {
+            case STOCK:
+                if (stock.isEmpty() && waste.isEmpty())
+                    throw new IllegalArgumentException("Stock move with an empty stock and waste");
+                return;
+            case FLIP:
+                if (toIndex < 1 || lane[toIndex - 1].getCascadeSize() != 0 || lane[toIndex - 1].isStackEmpty())
+                    throw new IllegalArgumentException("Invalid flip of lane " + toIndex);
+                return;
+            default:
+                if (cascade.length == 0 || toIndex == 0 || toIndex == fromIndex || toIndex < 0 && cascade.length > 1)
+                    throw new IllegalArgumentException("Invalid move " + move);
+                final boolean onTop;
+                if (fromIndex < 0)
+                    onTop = cascade.length == 1 && foundation[-1 * fromIndex - 1] == cascade[0];
+                else if (fromIndex == 0)
+                    onTop = cascade.length == 1 && waste.peek(0) == cascade[0];
+                else
+                    onTop = cascade.length <= lane[fromIndex - 1].getCascadeSize()
+                            && Arrays.equals(lane[fromIndex - 1].copyCascade(cascade.length), cascade);
+                if (!onTop)
+                    throw new IllegalArgumentException("Cards of " + move + " are not on top of its source");
+        }
+    }
+
+    /**
+     * Computes the Zobrist hash of the current position from scratch. This always equals {@link #getHash()} unless the
+     * position has been changed without going through {@link #apply(Move)}
+     *
+     * @return The Zobrist hash of the current position
+     */
+    public long computeHash() {
+        long computedHash = Zobrist.wasteSize(waste.size());
+        for (int wasteIndex = 0; wasteIndex < waste.size(); wasteIndex++)
+            computedHash ^= Zobrist.talon(waste.peek(wasteIndex));
+        for (int stockIndex = 0; stockIndex < stock.size(); stockIndex++)
+            computedHash ^= Zobrist.talon(stock.peek(stockIndex));
+        for (int foundationIndex = 0; foundationIndex < 12; foundationIndex++)
+            computedHash ^= Zobrist.foundation(foundationIndex, foundation[foundationIndex]);
+        for (int laneIndex = 0; laneIndex < 13; laneIndex++) {
+            computedHash ^= Zobrist.stack(laneIndex, lane[laneIndex].getStackSize());
+            for (int cascadeIndex = 0; cascadeIndex < lane[laneIndex].getCascadeSize(); cascadeIndex++)
+                computedHash ^= Zobrist.cascade(laneIndex, lane[laneIndex].getCascadeCard(cascadeIndex));
+        }
+        return computedHash;
+    }
+
+    /**
+     * Copies the position (deal, stock, waste, foundation and lanes) of the given game into this game. The undo stack,
+     * move count, time and settings are not copied and no UI callbacks are issued
+     *
+     * @param other Game to copy the position of
+     */
+    public void copyFrom(final Game other) {
+        deal = other.deal;
+        stock.copyFrom(other.stock);
+        waste.copyFrom(other.waste);
+        System.arraycopy(other.foundation, 0, foundation, 0, 12);
+        for (int laneIndex = 0; laneIndex < 13; laneIndex++)
+            lane[laneIndex].copyFrom(other.lane[laneIndex]);
+        hash = other.hash;
+        System.arraycopy(other.heldByLane, 0, heldByLane, 0, Cards.FACE_COUNT);
+        System.arraycopy(other.wantedByFoundation, 0, wantedByFoundation, 0, Cards.FACE_COUNT);
+        System.arraycopy(other.wantedByLane, 0, wantedByLane, 0, Cards.FACE_COUNT);
+    }
+
+    /**
+     * Deals the cards for the given deal number, resetting the stock, waste, foundation, lanes and undo stack. The
+     * deck is shuffled with a Fisher-Yates shuffle driven by a SplitMix64 generator seeded with the deal number, so
+     * that all 64 bits of the deal number are significant and the same deal always produces the same layout on any
+     * platform
+     *
+     * @param dealToDeal Deal number
+     */
+    private void deal(final long dealToDeal) {
+        deal = dealToDeal;
+        final int[] fullDeck = new int[Cards.DECK_SIZE];
+        int deckIndex = 0;
+        for (int deckNum = 0; deckNum < Cards.DECK_COUNT; deckNum++)
+            for (int suit = Cards.CLUBS; suit <= Cards.SPADES; suit++)
+                for (int cardNum = Cards.ACE; cardNum <= Cards.KING; cardNum++)
+                    fullDeck[deckIndex++] = Cards.create(deckNum, suit, cardNum);
+        long state = dealToDeal;
+        for (int index = fullDeck.length - 1; index > 0; index--) {
+            // SplitMix64 step
+            state += 0x9E3779B97F4A7C15L;
+            long random = state;
+            random = (random ^ (random >>> 30)) * 0xBF58476D1CE4E5B9L;
+            random = (random ^ (random >>> 27)) * 0x94D049BB133111EBL;
+            random ^= random >>> 31;
+            final int swapIndex = (int) ((random >>> 1) % (index + 1));
+            final int card = fullDeck[index];
+            fullDeck[index] = fullDeck[swapIndex];
+            fullDeck[swapIndex] = card;
+        }
+        moves.clear();
+        checkpoints.clear();
+        int currentIndex = 0;
+        stock.clear();
+        for (int stockIndex = 0; stockIndex < 65; stockIndex++)
+            stock.push(fullDeck[currentIndex++]);
+        waste.clear();
+        for (int foundationIndex = 0; foundationIndex < 12; foundationIndex++)
+            foundation[foundationIndex] = Cards.NONE;
+        for (int laneIndex = 0; laneIndex < 13; laneIndex++) {
+            lane[laneIndex].clear();
+            for (int i = 0; i < laneIndex; i++)
+                lane[laneIndex].pushStack(fullDeck[currentIndex++]);
+            lane[laneIndex].addCascade(fullDeck[currentIndex++]);
+        }
+        rebuildIndexes();
+        // The deal is always the first checkpoint
+        checkpoints.record(this, 0);
+    }
+
+    /**
+     * Finds an auto flip of the top stack card in the given lane
+     *
+     * @param laneIndex One-based index (1 through 13)
+     * @return The flip, or null if the lane's cascade is not empty or it has no stack
+     */
+    private Move findAutoFlip(final int laneIndex) {
+        if (lane[laneIndex - 1].isCascadeEmpty() && !lane[laneIndex - 1].isStackEmpty())
+            return new Move(Move.Type.FLIP, laneIndex);
+        return null;
+    }
+
+    /**
+     * Finds an auto play of the first card in the given cascade to the foundation (moving from -1 to -12 i.e., left to
+     * right)
+     *
+     * @param laneIndex One-based index (1 through 13)
+     * @return The auto play move, or null if the card cannot be played to the foundation
+     */
+    private Move findAutoMoveFromCascadeToFoundation(final int laneIndex) {
+        if (lane[laneIndex - 1].isCascadeEmpty())
+            return null;
+        final int card = lane[laneIndex - 1].getTopCascadeCard();
+        final int foundationIndex = getAcceptingFoundation(card);
+        if (foundationIndex == 0)
+            return null;
+        return new Move(Move.Type.AUTO_PLAY, foundationIndex, laneIndex, card);
+    }
+
+    /**
+     * Finds an auto play of the first card in the waste to the foundation (moving from -1 to -12 i.e., left to right)
+     *
+     * @return The auto play move, or null if the card cannot be played to the foundation
+     */
+    private Move findAutoMoveFromWasteToFoundation() {
+        if (waste.isEmpty())
+            return null;
+        final int card = waste.peek(0);
+        final int foundationIndex = getAcceptingFoundation(card);
+        if (foundationIndex == 0)
+            return null;
+        return new Move(Move.Type.AUTO_PLAY, foundationIndex, 0, card);
+    }
+
+    /**
+     * Using the auto flip and auto play settings, finds the next card to auto play, first looking through the lanes
+     * (from 1 to 13 i.e., left to right) and then to the waste
+     *
+     * @return The next auto play move (a flip or a play to the foundation), or null if there is none
+     */
+    private Move findAutoPlayMove() {
+        if (autoFlip)
+            for (int laneIndex = 0; laneIndex < 13; laneIndex++)
+                if (!autoplayLaneIndexLocked[laneIndex]) {
+                    final Move flip = findAutoFlip(laneIndex + 1);
+                    if (flip != null)
+                        return flip;
+                }
+        // If preference is never we have nothing to do
+        if (autoPlayMode == AutoPlayMode.NEVER)
+            return null;
+        else if (autoPlayMode == AutoPlayMode.WON) {
+            // Check to make sure the user has 'won'
+            int totalStackSize = 0;
+            for (int laneIndex = 0; laneIndex < 13; laneIndex++)
+                totalStackSize += lane[laneIndex].getStackSize();
+            if (totalStackSize > 0 || !stock.isEmpty() || waste.size() > 1)
+                return null;
+        }
+        // Auto play
+        for (int laneIndex = 0; laneIndex < 13; laneIndex++)
+            if (!autoplayLaneIndexLocked[laneIndex]) {
+                final Move autoPlayMove = findAutoMoveFromCascadeToFoundation(laneIndex + 1);
+                if (autoPlayMove != null)
+                    return autoPlayMove;
+            }
+        return findAutoMoveFromWasteToFoundation();
+    }
+
+    /**
+     * Gets the requested card from the cascade of the given lane
+     *
+     * @param laneIndex    One-based index (1 through 13)
+     * @param cascadeIndex Zero-based index of the card in the cascade, where the 0th card is closest to the stack
+     * @return The requested cascade card
+     */
+    public int getCascadeCard(final int laneIndex, final int cascadeIndex) {
+        return lane[laneIndex - 1].getCascadeCard(cascadeIndex);
+    }
+
+    /**
+     * Gets the number of face up cards in the cascade of the given lane
+     *
+     * @param laneIndex One-based index (1 through 13)
+     * @return The number of cards in the cascade
+     */
+    public int getCascadeSize(final int laneIndex) {
+        return lane[laneIndex - 1].getCascadeSize();
+    }
+
+    /**
+     * Gets the foundation which the given card should be played to
+     *
+     * @param card Card to play to the foundation
+     * @return Negative One-based index (-1 through -12) of the first (leftmost) foundation which accepts the card, or 0
+     * if no foundation accepts the card
+     */
+    public int getAcceptingFoundation(final int card) {
+        final int foundations = wantedByFoundation[Cards.getFace(card)];
+        if (foundations == 0)
+            return 0;
+        return -1 * (Integer.numberOfTrailingZeros(foundations) + 1);
+    }
+
+    /**
+     * Gets every lane which accepts the given card (or cascade starting with the given card): lanes whose top cascade
+     * card the card stacks on and, for kings, empty lanes
+     *
+     * @param bottomNewCard Bottom card of the cascade/the card to be dropped
+     * @return Bit mask of the accepting lanes, where bit 0 is lane 1
+     */
+    public int getAcceptingLanes(final int bottomNewCard) {
+        int lanes = wantedByLane[Cards.getFace(bottomNewCard)];
+        if (Cards.getRank(bottomNewCard) == Cards.KING)
+            for (int laneIndex = 0; laneIndex < 13; laneIndex++)
+                if (lane[laneIndex].isCascadeEmpty() && lane[laneIndex].isStackEmpty())
+                    lanes |= 1 << laneIndex;
+        return lanes;
+    }
+
+    /**
+     * Getter for the deal number of the current game
+     *
+     * @return The deal number of the current game
+     */
+    public long getDeal() {
+        return deal;
+    }
+
+    /**
+     * Gets the foundation card in the given foundation index
+     *
+     * @param foundationIndex Negative One-based index (-1 through -12) of the foundation
+     * @return the card in the given foundation location or Cards.NONE if the foundation is empty
+     */
+    public int getFoundationCard(final int foundationIndex) {
+        return foundation[-1 * foundationIndex - 1];
+    }
+
+    /**
+     * Getter for the Zobrist hash of the current position, which is updated incrementally with every move (and undo).
+     * Equal positions always have equal hashes
+     *
+     * @return The Zobrist hash of the current position
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Gets a hint for the current position: the best legal move according to the {@link HintEngine}. Hints are cached
+     * per position, so repeated calls without a move in between are free
+     *
+     * @return The suggested move, or null if there are no legal moves
+     */
+    public Move getHint() {
+        if (hintEngine == null)
+            hintEngine = new HintEngine();
+        return hintEngine.getHint(this);
+    }
+
+    /**
+     * Enumerates every legal move in the current position: flips, moves of any part of a cascade to another lane or
+     * (for single cards) to a foundation, moves of the top waste card, moves of the top foundation cards back to a lane
+     * and clicking the stock. Moves between lanes are found from the held and wanted card indexes, so only the cascade
+     * cards some other lane accepts are looked at (and copied)
+     *
+     * @return Every legal move in the current position
+     */
+    public List<Move> getLegalMoves() {
+        final List<Move> legalMoves = new ArrayList<>();
+        final int wasteCard = waste.peek(0);
+        if (wasteCard != Cards.NONE)
+            addLegalMoves(0, new int[]{wasteCard}, legalMoves);
+        for (int foundationIndex = 0; foundationIndex < 12; foundationIndex++)
+            if (foundation[foundationIndex] != Cards.NONE)
+                addLegalMoves(-1 * (foundationIndex + 1), new int[]{foundation[foundationIndex]}, legalMoves);
+        for (int laneIndex = 0; laneIndex < 13; laneIndex++) {
+            final int topCard = lane[laneIndex].getTopCascadeCard();
+            if (topCard == Cards.NONE) {
+                if (!lane[laneIndex].isStackEmpty())
+                    legalMoves.add(new Move(Move.Type.FLIP, laneIndex + 1));
+                continue;
+            }
+            for (int foundations = wantedByFoundation[Cards.getFace(topCard)]; foundations != 0;
+                 foundations &= foundations - 1)
+                legalMoves.add(new Move(Move.Type.PLAYER_MOVE, -1 * (Integer.numberOfTrailingZeros(foundations) + 1),
+                        laneIndex + 1, topCard));
+        }
+        for (int face = 0; face < Cards.FACE_COUNT; face++) {
+            if (heldByLane[face] == 0)
+                continue;
+            final int acceptingLanes = getAcceptingLanes(face);
+            for (int sources = heldByLane[face]; sources != 0 && acceptingLanes != 0; sources &= sources - 1) {
+                final int sourceIndex = Integer.numberOfTrailingZeros(sources);
+                int lanes = acceptingLanes & ~(1 << sourceIndex);
+                if (lanes == 0)
+                    continue;
+                // The cards from the held card up, counted by rank as the cascade descends one rank at a time
+                final int[] cascade = lane[sourceIndex].copyCascade(Cards.getRank(face)
+                        - Cards.getRank(lane[sourceIndex].getTopCascadeCard()) + 1);
+                for (; lanes != 0; lanes &= lanes - 1)
+                    legalMoves.add(new Move(Move.Type.PLAYER_MOVE, Integer.numberOfTrailingZeros(lanes) + 1,
+                            sourceIndex + 1, cascade));
+            }
+        }
+        if (!stock.isEmpty() || !waste.isEmpty())
+            legalMoves.add(new Move(Move.Type.STOCK));
+        return legalMoves;
+    }
+
+    /**
+     * Getter for the current move count
+     *
+     * @return Current move count
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Gets the undoable moves made since the deal, rebuilding the cascades the packed undo stack does not store by
+     * replaying the moves against the deal. Suitable for saving the game (see {@link #restoreGame(long, List)})
+     *
+     * @return The undoable moves, oldest first, where moves grouped with the move before them are marked as such (see
+     * {@link Move#isGrouped()})
+     */
+    public List<Move> getMoveHistory() {
+        final Game replay = new Game();
+        replay.deal(deal);
+        final List<Move> history = new ArrayList<>(moves.size());
+        for (int moveIndex = 0; moveIndex < moves.size(); moveIndex++) {
+            final Move move = replay.apply(replay.unpackMove(moves.get(moveIndex)));
+            history.add(MoveStack.isGrouped(moves.get(moveIndex)) ? move.toGrouped() : move);
+        }
+        return history;
+    }
+
+    /**
+     * Gets the number of face down cards in the stack of the given lane
+     *
+     * @param laneIndex One-based index (1 through 13)
+     * @return The number of cards in the stack
+     */
+    public int getStackSize(final int laneIndex) {
+        return lane[laneIndex - 1].getStackSize();
+    }
+
+    /**
+     * Getter for the current game time (in seconds)
+     *
+     * @return Current game time (in seconds)
+     */
+    public int getTimeInSeconds() {
+        return timeInSeconds;
+    }
+
+    /**
+     * Gets the length of the undo/redo timeline, i.e., the furthest position {@link #jumpTo(int)} can jump to
+     *
+     * @return The number of moves on the undo stack if every undone move was redone
+     */
+    public int getTimelineLength() {
+        return moves.getEnd();
+    }
+
+    /**
+     * Gets the current position along the undo/redo timeline
+     *
+     * @return The number of moves on the undo stack
+     */
+    public int getTimelinePosition() {
+        return moves.size();
+    }
+
+    /**
+     * Gets the requested card from the waste
+     *
+     * @param wasteIndex Zero-based index of what waste card to return
+     * @return The card in the given position in the waste or Cards.NONE if there is no card in that position
+     */
+    public int getWasteCard(final int wasteIndex) {
+        return waste.peek(wasteIndex);
+    }
+
+    /**
+     * Increments the game time by one second
+     */
+    public void incrementTime() {
+        timeInSeconds++;
+        listener.updateTime();
+    }
+
+    /**
+     * Updates the wanted card index after the top card of the given foundation changed
+     *
+     * @param foundationIndex Zero-based index (0 through 11)
+     * @param oldCard         Top card of the foundation before it changed
+     */
+    private void indexFoundation(final int foundationIndex, final int oldCard) {
+        final int foundationBit = 1 << foundationIndex;
+        if (oldCard == Cards.NONE)
+            for (int suit = Cards.CLUBS; suit <= Cards.SPADES; suit++)
+                wantedByFoundation[Cards.create(0, suit, Cards.ACE)] &= ~foundationBit;
+        else if (Cards.getRank(oldCard) != Cards.KING)
+            wantedByFoundation[Cards.getFace(oldCard) + 1] &= ~foundationBit;
+        final int newCard = foundation[foundationIndex];
+        if (newCard == Cards.NONE)
+            for (int suit = Cards.CLUBS; suit <= Cards.SPADES; suit++)
+                wantedByFoundation[Cards.create(0, suit, Cards.ACE)] |= foundationBit;
+        else if (Cards.getRank(newCard) != Cards.KING)
+            wantedByFoundation[Cards.getFace(newCard) + 1] |= foundationBit;
+    }
+
+    /**
+     * Updates the wanted card index after the top cascade card of the given lane changed. A top cascade card wants the
+     * two cards of one rank lower and of the opposite colour
+     *
+     * @param laneIndex  Zero-based index (0 through 12)
+     * @param oldTopCard Top cascade card of the lane before it changed, or Cards.NONE if the cascade was empty
+     */
+    private void indexLane(final int laneIndex, final int oldTopCard) {
+        final int newTopCard = lane[laneIndex].getTopCascadeCard();
+        if (Cards.getFace(newTopCard) == Cards.getFace(oldTopCard))
+            return;
+        final int laneBit = 1 << laneIndex;
+        if (Cards.getRank(oldTopCard) > Cards.ACE) {
+            // Red cards want clubs and spades (suits 0 and 3), black cards want diamonds and hearts (suits 1 and 2)
+            final int rank = Cards.getRank(oldTopCard) - 1;
+            final boolean red = Cards.isRed(oldTopCard);
+            wantedByLane[Cards.create(0, red ? Cards.CLUBS : Cards.DIAMONDS, rank)] &= ~laneBit;
+            wantedByLane[Cards.create(0, red ? Cards.SPADES : Cards.HEARTS, rank)] &= ~laneBit;
+        }
+        if (Cards.getRank(newTopCard) > Cards.ACE) {
+            final int rank = Cards.getRank(newTopCard) - 1;
+            final boolean red = Cards.isRed(newTopCard);
+            wantedByLane[Cards.create(0, red ? Cards.CLUBS : Cards.DIAMONDS, rank)] |= laneBit;
+            wantedByLane[Cards.create(0, red ? Cards.SPADES : Cards.HEARTS, rank)] |= laneBit;
+        }
+    }
+
+    /**
+     * Jumps along the undo/redo timeline to the given position, updating the whole UI at once rather than animating
+     * each move. Only the moves since the nearest checkpoint are replayed, so even far jumps are cheap. The move count
+     * is left untouched, as with undo
+     *
+     * @param position Number of moves to keep on the undo stack, between 0 and the number of moves before any undo
+     */
+    public void jumpTo(final int position) {
+        seek(position);
+        for (int laneIndex = 0; laneIndex < 13; laneIndex++)
+            autoplayLaneIndexLocked[laneIndex] = false;
+        refreshUI();
+        onTimelineJump(position);
+    }
+
+    /**
+     * Whether a game is in progress (i.e., at least one move has been made and the game is not paused or won)
+     *
+     * @return Whether a game is in progress
+     */
+    public boolean isGameInProgress() {
+        return gameInProgress;
+    }
+
+    /**
+     * Whether there are any cards in the stock
+     *
+     * @return Whether there are any cards in the stock
+     */
+    public boolean isStockEmpty() {
+        return stock.isEmpty();
+    }
+
+    /**
+     * Whether there are any cards in the waste
+     *
+     * @return Whether there are any cards in the waste
+     */
+    public boolean isWasteEmpty() {
+        return waste.isEmpty();
+    }
+
+    /**
+     * Whether every card has been played to the foundation (i.e., all foundations have a king)
+     *
+     * @return Whether the game has been won
+     */
+    public boolean isWon() {
+        for (int foundationIndex = 0; foundationIndex < 12; foundationIndex++)
+            if (Cards.getRank(foundation[foundationIndex]) != Cards.KING)
+                return false;
+        return true;
+    }
+
+    /**
+     * Triggers a move, whether player initiated or an auto play move. Moves are assumed to be valid. Note that moves
+     * should have to and from locations in the following format:
+     * <ul>
+     * <li>Lanes: One-based index (1 through 13)</li>
+     * <li>Waste: 0</li>
+     * <li>Foundation: Negative One-based index (-1 through -12)</li>
+     * </ul>
+     *
+     * @param move Move to do
+     */
+    public void move(final Move move) {
+        final Move undoableMove = apply(move);
+        switch (move.getType()) {
+            case STOCK: // Clicked the stock
+                addMoveToUndo(undoableMove);
+                listener.updateWasteUI();
+                listener.updateStockUI();
+                moveStarted(true);
+                moveCompleted();
+                break;
+            case UNDO_STOCK: // Undo'ing a stock click
+                listener.updateWasteUI();
+                listener.updateStockUI();
+                break;
+            case FLIP: // Flipping over a face down card in a lane
+                addMoveToUndo(undoableMove);
+                listener.flipOverTopStack(move.getToIndex(), lane[move.getToIndex() - 1].getTopCascadeCard());
+                for (int laneIndex = 0; laneIndex < 13; laneIndex++)
+                    autoplayLaneIndexLocked[laneIndex] = false;
+                autoPlay();
+                break;
+            case UNDO_FLIP: // Undo'ing the flip of a face down card in a lane
+                listener.setStackSize(move.getToIndex(), lane[move.getToIndex() - 1].getStackSize());
+                break;
+            case AUTO_PLAY: // Auto play
+            case UNDO: // Undo of a player move or auto play
+            case PLAYER_MOVE: // Player dragged move
+                // Add move to the undo list if it isn't an undo move
+                if (move.getType() != Move.Type.UNDO)
+                    addMoveToUndo(undoableMove);
+                // Update the from UI
+                if (move.getFromIndex() < 0)
+                    listener.updateFoundationUI(move.getFromIndex());
+                else if (move.getFromIndex() == 0)
+                    listener.updateWasteUI();
+                else
+                    listener.decrementCascadeSize(move.getFromIndex(), move.getCascade().length);
+                // Update the to UI
+                if (move.getType() == Move.Type.AUTO_PLAY) {
+                    moveStarted(true);
+                    if (animateAutoPlay) {
+                        // Animate an auto play and wait for its completion
+                        // before doing anything else. We need to keep track of
+                        // how many moves are currently being animated so that
+                        // we don't kick off multiple auto plays
+                        pendingMoves++;
+                        listener.animate(move);
+                    } else {
+                        updateToUI(move);
+                        postMoveCompleted();
+                    }
+                } else if (move.getType() == Move.Type.UNDO) {
+                    if (animateUndo)
+                        listener.animate(move);
+                    else
+                        updateToUI(move);
+                } else if (move.getToIndex() <= 0) // PLAYER_MOVE
+                {
+                    updateToUI(move);
+                    moveStarted(true);
+                    moveCompleted();
+                } else
+                // PLAYER_MOVE, move.getToIndex > 0
+                {
+                    if (move.getFromIndex() < 0)
+                        autoplayLaneIndexLocked[move.getToIndex() - 1] = true;
+                    updateToUI(move);
+                    moveStarted(move.getFromIndex() >= 0);
+                    moveCompleted();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Signals completion of a move, starting auto play if there are no other pending animations (which will eventually
+     * call this method).
+     */
+    protected void moveCompleted() {
+        checkForWin();
+        if (pendingMoves == 0)
+            autoPlay();
+    }
+
+    /**
+     * Signals start of a move, updating the move count, starting the game if this is the first move, and resetting the
+     * auto play lane locks if requested.
+     *
+     * @param resetAutoplayLaneIndexLocked Whether to reset the auto play lane locks
+     */
+    private void moveStarted(final boolean resetAutoplayLaneIndexLocked) {
+        moveCount++;
+        listener.updateMoveCount();
+        if (moveCount == 1) {
+            onGameStarted();
+            resumeGame();
+        }
+        if (resetAutoplayLaneIndexLocked)
+            for (int laneIndex = 0; laneIndex < 13; laneIndex++)
+                autoplayLaneIndexLocked[laneIndex] = false;
+    }
+
+    /**
+     * Starts a new game with a randomly chosen deal
+     */
+    public void newGame() {
+        newGame(new Random().nextLong() & Long.MAX_VALUE);
+    }
+
+    /**
+     * Starts a new game with the given deal, resetting the game state and updating the UI to match
+     *
+     * @param deal Deal number, which deterministically determines the layout of the cards
+     */
+    public void newGame(final long deal) {
+        deal(deal);
+        timeInSeconds = 0;
+        listener.updateTime();
+        moveCount = 0;
+        listener.updateMoveCount();
+        for (int h = 0; h < 13; h++)
+            autoplayLaneIndexLocked[h] = false;
+        refreshUI();
+    }
+
+    /**
+     * Called after a chain of auto play moves is applied at once (rather than through {@link #move(Move)}). Subclasses
+     * can override this to record the moves
+     *
+     * @param chain Flips and plays to the foundation applied, in order, where every move after the first is grouped
+     *              (see {@link Move#isGrouped()})
+     */
+    protected void onAutoPlayChain(final List<Move> chain) {
+    }
+
+    /**
+     * Called when the first move of a game is made. Subclasses can override this to record the start of the game
+     */
+    protected void onGameStarted() {
+    }
+
+    /**
+     * Called when the game is won, before the listener is informed. Subclasses can override this to record the win
+     */
+    protected void onGameWon() {
+    }
+
+    /**
+     * Called after jumping along the undo/redo timeline. Subclasses can override this to record the jump
+     *
+     * @param position Number of moves now on the undo stack
+     */
+    protected void onTimelineJump(final int position) {
+    }
+
+    /**
+     * Pauses the game
+     */
+    public void pauseGame() {
+        gameInProgress = false;
+        listener.updateMenuUI();
+    }
+
+    /**
+     * Signals completion of a non-animated auto play move. By default, this calls {@link #moveCompleted()} directly;
+     * UIs can override this to stagger auto play moves (i.e., to avoid deep call chains)
+     */
+    protected void postMoveCompleted() {
+        moveCompleted();
+    }
+
+    /**
+     * Adds the given move to the undo stack (redoing it if it is the next move to redo) and takes a checkpoint if one
+     * is due. Must be called right after the move is applied
+     *
+     * @param move    Undoable move to add to the undo stack
+     * @param grouped Whether the move continues the group of the move below it, to be undone and redone together
+     */
+    private void pushUndoable(final Move move, final boolean grouped) {
+        // The first move can never be grouped, as there is no move below it to group with (i.e., in a corrupt journal)
+        final int packedMove = grouped && !moves.isEmpty() ? MoveStack.group(MoveStack.pack(move))
+                : MoveStack.pack(move);
+        if (!moves.push(packedMove))
+            checkpoints.truncate(moves.size() - 1);
+        checkpoints.record(this, moves.size());
+    }
+
+    /**
+     * Recomputes the position hash and the held and wanted card indexes from scratch. Subclasses which change the position
+     * directly (rather than through {@link #apply(Move)}) must call this afterwards
+     */
+    protected void rebuildIndexes() {
+        hash = computeHash();
+        for (int face = 0; face < Cards.FACE_COUNT; face++) {
+            heldByLane[face] = 0;
+            wantedByFoundation[face] = 0;
+            wantedByLane[face] = 0;
+        }
+        for (int laneIndex = 0; laneIndex < 13; laneIndex++)
+            for (int cascadeIndex = 0; cascadeIndex < lane[laneIndex].getCascadeSize(); cascadeIndex++)
+                heldByLane[Cards.getFace(lane[laneIndex].getCascadeCard(cascadeIndex))] |= 1 << laneIndex;
+        // Index each foundation and lane as if they previously wanted nothing (a king on the foundation, an empty
+        // cascade)
+        for (int foundationIndex = 0; foundationIndex < 12; foundationIndex++)
+            indexFoundation(foundationIndex, Cards.create(0, Cards.CLUBS, Cards.KING));
+        for (int laneIndex = 0; laneIndex < 13; laneIndex++)
+            indexLane(laneIndex, Cards.NONE);
+    }
+
+    /**
+     * Redoes the last undone move (or group of moves, such as a chain of auto play moves), as long as no other move has
+     * been made since. Redoing jumps along the timeline whether it redoes a single move or a group, so that, as with
+     * undo, the move count is left untouched and no auto play is attempted
+     */
+    public void redo() {
+        if (!moves.canRedo())
+            return;
+        int groupEnd = moves.size() + 1;
+        while (groupEnd < moves.getEnd() && MoveStack.isGrouped(moves.get(groupEnd)))
+            groupEnd++;
+        jumpTo(groupEnd);
+    }
+
+    /**
+     * Updates the UI of every location (stock, waste, foundations and lanes) and the menu to match the game state
+     */
+    public void refreshUI() {
+        listener.updateMenuUI();
+        listener.updateStockUI();
+        listener.updateWasteUI();
+        for (int foundationIndex = 0; foundationIndex < 12; foundationIndex++)
+            listener.updateFoundationUI(-1 * (foundationIndex + 1));
+        for (int laneIndex = 0; laneIndex < 13; laneIndex++) {
+            listener.setStackSize(laneIndex + 1, lane[laneIndex].getStackSize());
+            listener.addCascade(laneIndex + 1, lane[laneIndex].toCascadeArray());
+        }
+    }
+
+    /**
+     * Jumps back to the start of the deal, keeping every move to be redone
+     */
+    public void restartDeal() {
+        jumpTo(0);
+    }
+
+    /**
+     * Restores a game by dealing the given deal and replaying the given moves, then updates the UI to match. The move
+     * count, game time and auto play lane locks are left untouched
+     *
+     * @param dealToRestore Deal number of the game
+     * @param movesToReplay Moves to replay, in the order they were made, as found on the undo stack. Grouped moves
+     *                      are grouped on the undo stack again
+     */
+    public void restoreGame(final long dealToRestore, final List<Move> movesToReplay) {
+        deal(dealToRestore);
+        for (final Move move : movesToReplay)
+            pushUndoable(apply(move), move.isGrouped());
+        refreshUI();
+    }
+
+    /**
+     * Restores a game by dealing the given deal and replaying its journal: every move passed to {@link #move(Move)}
+     * (including undo and redo moves) and every jump along the undo/redo timeline, then updates the UI and move count
+     * to match. The game time and auto play lane locks are left untouched
+     *
+     * @param dealToRestore Deal number of the game
+     * @param journal       Every move and jump of the game, in the order they were made, each encoded with
+     *                      {@link SavedGame#moveToByteArray(Move)} or {@link SavedGame#jumpToByteArray(int)}
+     * @throws IllegalArgumentException If a journal record cannot be decoded or cannot be made in the position it is
+     *                                  replayed in
+     */
+    public void restoreJournal(final long dealToRestore, final List<byte[]> journal) {
+        deal(dealToRestore);
+        moveCount = 0;
+        for (final byte[] record : journal) {
+            if (SavedGame.isJump(record)) {
+                final int position = SavedGame.jumpFromByteArray(record);
+                if (position > moves.getEnd())
+                    throw new IllegalArgumentException("Invalid jump to " + position);
+                seek(position);
+                continue;
+            }
+            final Move move = SavedGame.moveFromByteArray(record);
+            switch (move.getType()) {
+                case UNDO:
+                case UNDO_FLIP:
+                case UNDO_STOCK:
+                    if (moves.isEmpty())
+                        throw new IllegalArgumentException("Undo without a move to undo");
+                    apply(unpackUndoMove(moves.pop()));
+                    break;
+                case FLIP:
+                    checkJournaledMove(move);
+                    pushUndoable(apply(move), move.isGrouped());
+                    break;
+                default:
+                    checkJournaledMove(move);
+                    // Matches the moves counted by moveStarted()
+                    pushUndoable(apply(move), move.isGrouped());
+                    moveCount++;
+                    break;
+            }
+        }
+        listener.updateMoveCount();
+        refreshUI();
+    }
+
+    /**
+     * Resumes the game if there has been at least one move
+     */
+    public void resumeGame() {
+        gameInProgress = moveCount > 0;
+        listener.updateMenuUI();
+    }
+
+    /**
+     * Moves the position along the undo/redo timeline without updating the UI, restoring the nearest checkpoint
+     * before the position when moving backwards and then replaying the moves up to the position
+     *
+     * @param position Number of moves to keep on the undo stack, between 0 and the number of moves before any undo
+     */
+    private void seek(final int position) {
+        int currentPosition = moves.size();
+        if (position < currentPosition)
+            currentPosition = checkpoints.restore(this, position);
+        for (; currentPosition < position; currentPosition++) {
+            apply(unpackMove(moves.get(currentPosition)));
+            checkpoints.record(this, currentPosition + 1);
+        }
+        moves.setSize(position);
+    }
+
+    /**
+     * Sets whether auto play moves should be animated
+     *
+     * @param animateAutoPlay Whether auto play moves should be animated
+     */
+    public void setAnimateAutoPlay(final boolean animateAutoPlay) {
+        this.animateAutoPlay = animateAutoPlay;
+    }
+
+    /**
+     * Sets whether undo moves should be animated
+     *
+     * @param animateUndo Whether undo moves should be animated
+     */
+    public void setAnimateUndo(final boolean animateUndo) {
+        this.animateUndo = animateUndo;
+    }
+
+    /**
+     * Sets whether face down cards should be automatically flipped over
+     *
+     * @param autoFlip Whether face down cards should be automatically flipped over
+     */
+    public void setAutoFlip(final boolean autoFlip) {
+        this.autoFlip = autoFlip;
+    }
+
+    /**
+     * Sets which cards should be automatically played to the foundation
+     *
+     * @param autoPlayMode Auto play mode
+     */
+    public void setAutoPlayMode(final AutoPlayMode autoPlayMode) {
+        this.autoPlayMode = autoPlayMode;
+    }
+
+    /**
+     * Sets the maximum number of positions kept along the undo/redo timeline to speed up jumps. Each takes roughly 10KB;
+     * fewer positions make long jumps replay more moves
+     *
+     * @param maxCheckpoints Maximum number of positions kept, at least 1
+     */
+    public void setMaxCheckpoints(final int maxCheckpoints) {
+        checkpoints.setMaxCheckpoints(maxCheckpoints);
+    }
+
+    /**
+     * Undo's the last move or, if it was made as part of a group (such as a chain of auto play moves), the whole group
+     */
+    public void undo() {
+        if (moves.isEmpty())
+            return;
+        int groupStart = moves.size() - 1;
+        while (MoveStack.isGrouped(moves.get(groupStart)))
+            groupStart--;
+        if (groupStart < moves.size() - 1) {
+            jumpTo(groupStart);
+            return;
+        }
+        move(unpackUndoMove(moves.pop()));
+        listener.updateMenuUI();
+    }
+
+    /**
+     * Jumps back to right after the last flip of a face down card, undoing every move since. If the last move is itself
+     * a flip, it is undone as well, jumping back to the flip before it
+     */
+    public void undoToLastFlip() {
+        if (moves.isEmpty())
+            return;
+        int position = moves.size() - 1;
+        while (position > 0 && MoveStack.getType(moves.get(position - 1)) != Move.Type.FLIP)
+            position--;
+        jumpTo(position);
+    }
+
+    /**
+     * Unpacks the given move from the undo stack, reading the cards moved from the top of its source. Must be called
+     * on the position right before the move
+     *
+     * @param packedMove Packed move
+     * @return The move
+     */
+    private Move unpackMove(final int packedMove) {
+        final Move.Type type = MoveStack.getType(packedMove);
+        final int fromIndex = MoveStack.getFromIndex(packedMove);
+        final int toIndex = MoveStack.getToIndex(packedMove);
+        switch (type) {
+            case FLIP:
+                return new Move(type, toIndex);
+            case STOCK:
+                // Applying the move fills in the cards moved
+                return new Move(type);
+            default:
+                if (fromIndex > 0)
+                    return new Move(type, toIndex, fromIndex,
+                            lane[fromIndex - 1].copyCascade(MoveStack.getCascadeSize(packedMove)));
+                return new Move(type, toIndex, fromIndex, MoveStack.getCard(packedMove));
+        }
+    }
+
+    /**
+     * Converts the given move from the undo stack into its undo equivalent (as {@link Move#toUndo()} would), reading
+     * the cards moved from the top of its destination. Must be called on the position right after the move
+     *
+     * @param packedMove Packed move
+     * @return A move that would perfectly undo the packed move
+     */
+    private Move unpackUndoMove(final int packedMove) {
+        final int fromIndex = MoveStack.getFromIndex(packedMove);
+        final int toIndex = MoveStack.getToIndex(packedMove);
+        final int cascadeSize = MoveStack.getCascadeSize(packedMove);
+        switch (MoveStack.getType(packedMove)) {
+            case FLIP:
+                return new Move(Move.Type.UNDO_FLIP, toIndex);
+            case STOCK:
+                final int[] cards = new int[cascadeSize];
+                for (int cardIndex = 0; cardIndex < cascadeSize; cardIndex++)
+                    cards[cardIndex] = waste.peek(cascadeSize - 1 - cardIndex);
+                return new Move(Move.Type.UNDO_STOCK, cards);
+            default:
+                if (toIndex > 0 && cascadeSize > 1)
+                    return new Move(Move.Type.UNDO, fromIndex, toIndex, lane[toIndex - 1].copyCascade(cascadeSize));
+                return new Move(Move.Type.UNDO, fromIndex, toIndex, MoveStack.getCard(packedMove));
+        }
+    }
+
+    /**
+     * Updates the UI at the destination of the given move
+     *
+     * @param move Move whose destination should be updated
+     */
+    private void updateToUI(final Move move) {
+        if (move.getToIndex() < 0)
+            listener.updateFoundationUI(move.getToIndex());
+        else if (move.getToIndex() == 0)
+            listener.updateWasteUI();
+        else
+            listener.addCascade(move.getToIndex(), move.getCascade());
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.triplesolitaire.engine;
+
+/**
+ * Callbacks issued by a {@link Game} whenever its state changes in a way that should be reflected in the UI. Locations
+ * use the same format as {@link Move}:
+ * <ul>
+ * <li>Lanes: One-based index (1 through 13)</li>
+ * <li>Waste: 0</li>
+ * <li>Foundation: Negative One-based index (-1 through -12)</li>
+ * </ul>
+ */
+public interface GameListener {
+    /**
+     * Adds a new set of cards to the cascade of the given lane
+     *
+     * @param laneIndex    One-based index (1 through 13)
+     * @param cascadeToAdd Cards to add to the cascade, where the first card is the bottom card of the cascade
+     */
+    void addCascade(int laneIndex, int[] cascadeToAdd);
+
+    /**
+     * Animates the given AUTO_PLAY or UNDO move. Once complete, the destination of the move should be updated and, for
+     * AUTO_PLAY moves, {@link Game#animationCompleted()} should be called
+     *
+     * @param move Move to animate
+     */
+    void animate(Move move);
+
+    /**
+     * Removes the given number of cards from the cascade of the given lane
+     *
+     * @param laneIndex   One-based index (1 through 13)
+     * @param removeCount The number of cards to remove from the cascade
+     */
+    void decrementCascadeSize(int laneIndex, int removeCount);
+
+    /**
+     * Flips over the top stack card of the given lane
+     *
+     * @param laneIndex One-based index (1 through 13)
+     * @param card      The card to show as the newly flipped over card
+     */
+    void flipOverTopStack(int laneIndex, int card);
+
+    /**
+     * Sets the stack size of the given lane, removing all cards from its cascade
+     *
+     * @param laneIndex    One-based index (1 through 13)
+     * @param newStackSize New stack size
+     */
+    void setStackSize(int laneIndex, int newStackSize);
+
+    /**
+     * Called once the player has won the game
+     */
+    void triggerWin();
+
+    /**
+     * Updates the given foundation UI
+     *
+     * @param foundationIndex Negative One-based index (-1 through -12)
+     */
+    void updateFoundationUI(int foundationIndex);
+
+    /**
+     * Updates any UI depending on whether there are moves to undo or whether the game is in progress
+     */
+    void updateMenuUI();
+
+    /**
+     * Updates the move count UI
+     */
+    void updateMoveCount();
+
+    /**
+     * Updates the stock UI
+     */
+    void updateStockUI();
+
+    /**
+     * Updates the current game time UI
+     */
+    void updateTime();
+
+    /**
+     * Updates the waste UI
+     */
+    void updateWasteUI();
+}
@@ -0,0 +1,146 @@
+package com.github.triplesolitaire.engine;
+
+import java.util.List;
+
+/**
+ * Suggests the best move in a position within a fixed time budget (by default, a single 16ms frame) so that hints can
+ * be computed on the UI thread. Every legal move is ranked with a cheap heuristic, preferring (in order):
+ * <ol>
+ * <li>Flipping over a face down card</li>
+ * <li>Playing a card to the foundation, especially if it uncovers a face down card</li>
+ * <li>Moving a full cascade to uncover a face down card, with the largest stack first</li>
+ * <li>Moving the top waste card to a lane</li>
+ * <li>Moving part of a cascade to uncover a card which can be played to the foundation</li>
+ * <li>Moving a full cascade to empty a lane</li>
+ * <li>Clicking the stock</li>
+ * </ol>
+ * Whatever is left of the budget is spent searching for a win with a {@link Solver}: if one is found within the
+ * budget, its first move is suggested instead. Hints are cached by the position's {@link Game#getHash() hash}, so asking for a hint
+ * again without making a move costs nothing.
+ */
+public class HintEngine {
+    /**
+     * Default time budget, in milliseconds
+     */
+    public static final long DEFAULT_BUDGET_MILLIS = 16;
+    /**
+     * Maximum number of positions searched by the solver, chosen so that a search fits within the default budget
+     */
+    private static final int SOLVER_MAX_NODES = 4096;
+
+    /**
+     * Scores the given legal move with a cheap heuristic, where higher scores are better moves
+     *
+     * @param game Game the move is legal in
+     * @param move Legal move to score
+     * @return The score of the move
+     */
+    static int score(final Game game, final Move move) {
+        switch (move.getType()) {
+            case FLIP:
+                return 100;
+            case STOCK:
+                return 10;
+            default:
+                break;
+        }
+        final int fromIndex = move.getFromIndex();
+        final int toIndex = move.getToIndex();
+        if (fromIndex < 0)
+            // Moving cards back off the foundation is rarely needed
+            return 1;
+        if (toIndex < 0) {
+            if (fromIndex > 0 && game.getCascadeSize(fromIndex) == 1 && game.getStackSize(fromIndex) > 0)
+                return 95;
+            return 90;
+        }
+        if (fromIndex == 0)
+            return 60;
+        final int stackSize = game.getStackSize(fromIndex);
+        final int cascadeSize = game.getCascadeSize(fromIndex);
+        if (move.getCascade().length == cascadeSize) {
+            if (stackSize > 0)
+                return 70 + stackSize;
+            // Moving a king from one empty lane to another does nothing
+            return game.getCascadeSize(toIndex) == 0 ? 0 : 20;
+        }
+        final int uncoveredCard = game.getCascadeCard(fromIndex, cascadeSize - move.getCascade().length - 1);
+        return game.getAcceptingFoundation(uncoveredCard) == 0 ? 0 : 50;
+    }
+
+    /**
+     * Time budget, in milliseconds
+     */
+    private final long budgetMillis;
+    /**
+     * Deal of the position the cached hint is for
+     */
+    private long cachedDeal = 0;
+    /**
+     * Hash of the position the cached hint is for
+     */
+    private long cachedHash = 0;
+    /**
+     * Cached hint, or null if the cached position has no legal moves
+     */
+    private Move cachedHint = null;
+    /**
+     * Whether a hint has been cached
+     */
+    private boolean hasCachedHint = false;
+    /**
+     * Solver used to search for a winning first move, created the first time a hint is requested
+     */
+    private Solver solver = null;
+
+    /**
+     * Creates a new HintEngine with the default time budget
+     */
+    public HintEngine() {
+        this(HintEngine.DEFAULT_BUDGET_MILLIS);
+    }
+
+    /**
+     * Creates a new HintEngine
+     *
+     * @param budgetMillis Time budget for each hint, in milliseconds
+     */
+    public HintEngine(final long budgetMillis) {
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * Gets the best move in the current position of the given game
+     *
+     * @param game Game to get a hint for
+     * @return The suggested move, or null if there are no legal moves
+     */
+    public Move getHint(final Game game) {
+        if (hasCachedHint && cachedHash == game.getHash() && cachedDeal == game.getDeal())
+            return cachedHint;
+        // The budget covers the whole hint, so the search only gets what enumerating and ranking the moves left over
+        final long deadline = System.nanoTime() + budgetMillis * 1000000;
+        final List<Move> legalMoves = game.getLegalMoves();
+        Move hint = null;
+        int bestScore = -1;
+        for (final Move move : legalMoves) {
+            final int score = HintEngine.score(game, move);
+            if (score > bestScore) {
+                hint = move;
+                bestScore = score;
+            }
+        }
+        // A flip is always the best move, so only search if there is a real choice to make
+        if (legalMoves.size() > 1 && hint.getType() != Move.Type.FLIP && deadline - System.nanoTime() > 0) {
+            if (solver == null)
+                solver = new Solver(HintEngine.SOLVER_MAX_NODES, budgetMillis);
+            if (solver.solve(game, deadline) == Solver.Result.SOLVED && !solver.getSolution().isEmpty())
+                hint = solver.getSolution().get(0);
+        }
+        cachedDeal = game.getDeal();
+        cachedHash = game.getHash();
+        cachedHint = hint;
+        hasCachedHint = true;
+        return hint;
+    }
+}
@@ -0,0 +1,205 @@
+package com.github.triplesolitaire.engine;
+
+/**
+ * Stores all game state associated with a Lane, including its stack and cascade. Cards are encoded as described in
+ * {@link Cards} and stored in a single fixed-capacity array: the stack (face down cards) from the bottom up, followed by
+ * the cascade (flipped over cards). Flipping a card over therefore only moves the boundary between the two.
+ */
+public class LaneData {
+    /**
+     * Cards in this lane, starting with the bottom card of the stack and ending with the top card of the cascade
+     */
+    private final int[] cards = new int[Cards.DECK_SIZE];
+    /**
+     * Total number of cards in this lane (stack and cascade)
+     */
+    private int size = 0;
+    /**
+     * Number of cards in the stack
+     */
+    private int stackSize = 0;
+
+    /**
+     * Creates a new empty LaneData
+     */
+    public LaneData() {
+    }
+
+    /**
+     * Creates a LaneData given a set of cards for the stack and cascade
+     *
+     * @param arrayStack Cards to set as the stack, where the last card is the top of the stack
+     * @param cascade    Cards to set as the cascade, where the last card is the top of the cascade
+     */
+    public LaneData(final int[] arrayStack, final int[] cascade) {
+        System.arraycopy(arrayStack, 0, cards, 0, arrayStack.length);
+        stackSize = arrayStack.length;
+        size = stackSize;
+        addCascade(cascade);
+    }
+
+    /**
+     * Adds a card to the top of the cascade
+     *
+     * @param card Card to add
+     */
+    public void addCascade(final int card) {
+        cards[size++] = card;
+    }
+
+    /**
+     * Adds the given cards to the top of the cascade
+     *
+     * @param cascadeToAdd Cards to add, where the first card is the bottom card of the added cascade
+     */
+    public void addCascade(final int[] cascadeToAdd) {
+        System.arraycopy(cascadeToAdd, 0, cards, size, cascadeToAdd.length);
+        size += cascadeToAdd.length;
+    }
+
+    /**
+     * Clears this lane, removing all cards from both the stack and the cascade
+     */
+    public void clear() {
+        size = 0;
+        stackSize = 0;
+    }
+
+    /**
+     * Copies the top numCardsToInclude cards of the cascade into a new array
+     *
+     * @param numCardsToInclude The number of cards to include
+     * @return The cards in the requested cascade, where the first card is the bottom card of the cascade
+     */
+    public int[] copyCascade(final int numCardsToInclude) {
+        final int[] cascade = new int[numCardsToInclude];
+        System.arraycopy(cards, size - numCardsToInclude, cascade, 0, numCardsToInclude);
+        return cascade;
+    }
+
+    /**
+     * Replaces the contents of this lane with the contents of the given lane. Useful for cheaply saving and restoring
+     * the state of a lane
+     *
+     * @param other LaneData to copy from
+     */
+    public void copyFrom(final LaneData other) {
+        System.arraycopy(other.cards, 0, cards, 0, other.size);
+        size = other.size;
+        stackSize = other.stackSize;
+    }
+
+    /**
+     * Flips over the top card of the stack, making it the only card of the cascade. Should only be called when the
+     * cascade is empty and the stack is not
+     *
+     * @return The card flipped over
+     */
+    public int flip() {
+        return cards[--stackSize];
+    }
+
+    /**
+     * Gets the given card from the cascade
+     *
+     * @param cascadeIndex Zero based index of the card in the cascade, where 0 is the card under the rest of the cascade
+     * @return The requested cascade card
+     */
+    public int getCascadeCard(final int cascadeIndex) {
+        return cards[stackSize + cascadeIndex];
+    }
+
+    /**
+     * Gets the number of cards in the cascade
+     *
+     * @return The number of cards in the cascade
+     */
+    public int getCascadeSize() {
+        return size - stackSize;
+    }
+
+    /**
+     * Gets the number of cards in the stack
+     *
+     * @return The number of cards in the stack
+     */
+    public int getStackSize() {
+        return stackSize;
+    }
+
+    /**
+     * Gets the top card of the cascade (i.e., not covered by any other cards)
+     *
+     * @return The top card of the cascade or Cards.NONE if the cascade is empty
+     */
+    public int getTopCascadeCard() {
+        if (size == stackSize)
+            return Cards.NONE;
+        return cards[size - 1];
+    }
+
+    /**
+     * Whether the cascade is empty
+     *
+     * @return Whether there are no cards in the cascade
+     */
+    public boolean isCascadeEmpty() {
+        return size == stackSize;
+    }
+
+    /**
+     * Whether the stack is empty
+     *
+     * @return Whether there are no cards in the stack
+     */
+    public boolean isStackEmpty() {
+        return stackSize == 0;
+    }
+
+    /**
+     * Adds a card to the top of the stack. Should only be called when the cascade is empty (i.e., while dealing)
+     *
+     * @param card Card to add
+     */
+    public void pushStack(final int card) {
+        cards[stackSize++] = card;
+        size = stackSize;
+    }
+
+    /**
+     * Removes the given number of cards from the top of the cascade
+     *
+     * @param removeCount The number of cards to remove
+     */
+    public void removeCascade(final int removeCount) {
+        size -= removeCount;
+    }
+
+    /**
+     * Copies the cascade into a new array
+     *
+     * @return The cards in the cascade, where the last card is the top of the cascade
+     */
+    public int[] toCascadeArray() {
+        return copyCascade(size - stackSize);
+    }
+
+    /**
+     * Copies the stack into a new array
+     *
+     * @return The cards in the stack, where the last card is the top of the stack
+     */
+    public int[] toStackArray() {
+        final int[] stack = new int[stackSize];
+        System.arraycopy(cards, 0, stack, 0, stackSize);
+        return stack;
+    }
+
+    /**
+     * Undoes a flip, returning the bottom card of the cascade to the top of the stack. Should only be called when the
+     * cascade consists of only the flipped card
+     */
+    public void unflip() {
+        stackSize++;
+    }
+}
@@ -1,7 +1,5 @@
-package com.github.triplesolitaire;
+package com.github.triplesolitaire.engine;
 
-import java.util.LinkedList;
-import java.util.ListIterator;
 import java.util.StringTokenizer;
 
 /**
@@ -38,9 +36,47 @@ public class Move {
     }
 
     /**
-     * Cascade of cards. May contain only a single card.
+     * Empty cascade, shared by all Moves involving no cards
      */
-    private final LinkedList<String> cascade = new LinkedList<>();
+    private static final int[] EMPTY_CASCADE = new int[0];
+
+    /**
+     * Formats the given cards as a semicolon separated list, suitable for {@link #parseCascade(String)}
+     *
+     * @param cascade Cards to format
+     * @return A semicolon separated list of the cards
+     */
+    public static String formatCascade(final int[] cascade) {
+        if (cascade.length == 0)
+            return "";
+        final StringBuilder sb = new StringBuilder();
+        sb.append(cascade[0]);
+        for (int cascadeIndex = 1; cascadeIndex < cascade.length; cascadeIndex++) {
+            sb.append(';');
+            sb.append(cascade[cascadeIndex]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Parses the given card(s) into a cascade, assumes semicolon separators
+     *
+     * @param cascade Card(s) to parse, semicolon separated
+     * @return The parsed cards
+     */
+    public static int[] parseCascade(final String cascade) {
+        final StringTokenizer st = new StringTokenizer(cascade, ";");
+        final int[] cards = new int[st.countTokens()];
+        for (int cascadeIndex = 0; cascadeIndex < cards.length; cascadeIndex++)
+            cards[cascadeIndex] = Integer.parseInt(st.nextToken());
+        return cards;
+    }
+
+    /**
+     * Cascade of cards (see {@link Cards}), where the first card is the bottom card of the cascade. May contain only a
+     * single card.
+     */
+    private final int[] cascade;
     /**
      * Source location in the following format:
      * <ul>
@@ -50,6 +86,11 @@ public class Move {
      * </ul>
      */
     private final int fromIndex;
+    /**
+     * Whether this move continues the group of the move made before it (such as a chain of auto play moves), to be
+     * undone and redone together. Only set on the copy returned by {@link #toGrouped()}
+     */
+    private boolean grouped = false;
     /**
      * Destination location in the following format:
      * <ul>
@@ -75,7 +116,9 @@ public class Move {
         fromIndex = Integer.parseInt(st.nextToken());
         toIndex = Integer.parseInt(st.nextToken());
         if (st.hasMoreTokens())
-            fillCascade(st.nextToken());
+            cascade = Move.parseCascade(st.nextToken());
+        else
+            cascade = EMPTY_CASCADE;
     }
 
     /**
@@ -87,6 +130,7 @@ public class Move {
         this.type = type;
         toIndex = 0;
         fromIndex = 0;
+        cascade = EMPTY_CASCADE;
     }
 
     /**
@@ -99,6 +143,7 @@ public class Move {
         this.type = type;
         this.toIndex = toIndex;
         fromIndex = 0;
+        cascade = EMPTY_CASCADE;
     }
 
     /**
@@ -109,73 +154,71 @@ public class Move {
      * @param fromIndex Source location
      * @param card      Card to move
      */
-    public Move(final Type type, final int toIndex, final int fromIndex, final String card) {
-        this.type = type;
-        this.toIndex = toIndex;
-        this.fromIndex = fromIndex;
-        fillCascade(card);
+    public Move(final Type type, final int toIndex, final int fromIndex, final int card) {
+        this(type, toIndex, fromIndex, new int[]{card});
     }
 
     /**
-     * Move of one or more cards involving the stock.
+     * Moves involving one or more cards from one location to another
      *
-     * @param type Type (STOCK or UNDO_STOCK)
-     * @param card Card(s) moved
+     * @param type      Type of Move
+     * @param toIndex   Destination location
+     * @param fromIndex Source location
+     * @param cascade   Card(s) to move, where the first card is the bottom card of the cascade. Should not be modified
+     *                  after being passed to this Move
      */
-    public Move(final Type type, final String card) {
+    public Move(final Type type, final int toIndex, final int fromIndex, final int[] cascade) {
         this.type = type;
-        toIndex = 0;
-        fromIndex = 0;
-        fillCascade(card);
+        this.toIndex = toIndex;
+        this.fromIndex = fromIndex;
+        this.cascade = cascade;
     }
 
     /**
-     * Parses the given card(s) into the cascade, assumes semicolon separators
+     * Moves involving one or more cards from one location to another, where the cards are in the string form returned
+     * by {@link #formatCascade(int[])} (i.e., from the data of a drag event)
      *
-     * @param card Card(s) to parse, semicolon separated
+     * @param type      Type of Move
+     * @param toIndex   Destination location
+     * @param fromIndex Source location
+     * @param cascade   Card(s) to move, semicolon separated
      */
-    private void fillCascade(final String card) {
-        final StringTokenizer st = new StringTokenizer(card, ";");
-        while (st.hasMoreTokens())
-            cascade.add(st.nextToken());
+    public Move(final Type type, final int toIndex, final int fromIndex, final String cascade) {
+        this(type, toIndex, fromIndex, Move.parseCascade(cascade));
     }
 
     /**
-     * Gets the card if Move of a single card or bottom card of the cascade if it is a multiple card Move
+     * Move of one or more cards involving the stock.
      *
-     * @return The card if Move of a single card or bottom card of the cascade if it is a multiple card Move
+     * @param type    Type (STOCK or UNDO_STOCK)
+     * @param cascade Card(s) moved
      */
-    public String getCard() {
-        if (cascade.isEmpty())
-            return "";
-        return cascade.getFirst();
+    public Move(final Type type, final int[] cascade) {
+        this.type = type;
+        toIndex = 0;
+        fromIndex = 0;
+        this.cascade = cascade;
     }
 
     /**
-     * Gets the full list of cards included in the Move
+     * Gets the card if Move of a single card or bottom card of the cascade if it is a multiple card Move
      *
-     * @return The full list of cards included in the Move
+     * @return The card if Move of a single card or bottom card of the cascade if it is a multiple card Move, or
+     * Cards.NONE if the Move involves no cards
      */
-    public LinkedList<String> getCascade() {
-        return cascade;
+    public int getCard() {
+        if (cascade.length == 0)
+            return Cards.NONE;
+        return cascade[0];
     }
 
     /**
-     * Gets a string representation of the cascade.
+     * Gets the full list of cards included in the Move. The returned array should not be modified
      *
-     * @return A semicolon separated list of cards to use as a string representation of the cascade
+     * @return The full list of cards included in the Move
      */
-    private String getCascadeAsString() {
-        if (cascade.isEmpty())
-            return "";
-        final StringBuilder sb = new StringBuilder();
-        final ListIterator<String> listIterator = cascade.listIterator();
-        sb.append(listIterator.next());
-        while (listIterator.hasNext()) {
-            sb.append(';');
-            sb.append(listIterator.next());
-        }
-        return sb.toString();
+    public int[] getCascade() {
+        return cascade;
     }
 
     /**
@@ -215,6 +258,26 @@ public class Move {
         return type;
     }
 
+    /**
+     * Whether this move continues the group of the move made before it, to be undone and redone together
+     *
+     * @return Whether this move is grouped with the move before it
+     */
+    public boolean isGrouped() {
+        return grouped;
+    }
+
+    /**
+     * Copies this move, marking the copy as continuing the group of the move made before it
+     *
+     * @return A grouped copy of this Move
+     */
+    public Move toGrouped() {
+        final Move groupedMove = new Move(type, toIndex, fromIndex, cascade);
+        groupedMove.grouped = true;
+        return groupedMove;
+    }
+
     /**
      * Returns a string representation of this Move, useful for debugging or serialization
      *
@@ -222,7 +285,7 @@ public class Move {
      */
     @Override
     public String toString() {
-        return type.toString() + ':' + fromIndex + '>' + toIndex + ':' + getCascadeAsString();
+        return type.toString() + ':' + fromIndex + '>' + toIndex + ':' + Move.formatCascade(cascade);
     }
 
     /**
@@ -234,7 +297,7 @@ public class Move {
         if (type == Type.FLIP)
             return new Move(Type.UNDO_FLIP, toIndex);
         else if (type == Type.STOCK)
-            return new Move(Type.UNDO_STOCK, getCascadeAsString());
-        return new Move(Type.UNDO, fromIndex, toIndex, getCascadeAsString());
+            return new Move(Type.UNDO_STOCK, cascade);
+        return new Move(Type.UNDO, fromIndex, toIndex, cascade);
     }
 }
@@ -0,0 +1,226 @@
+package com.github.triplesolitaire.engine;
+
+/**
+ * Growable, array-backed stack of moves, each packed into a single int holding its type, locations, number of cards
+ * and first card. The rest of a cascade is not stored: it can always be read back from the game position, as the cards
+ * moved are on top of the destination after the move (and on top of the source before it).
+ * <p/>
+ * Popped moves are kept until a different move is pushed, so the stack doubles as an undo/redo timeline: moves between
+ * {@link #size()} and {@link #getEnd()} were undone and can be redone. Moves can also be {@link #group(int) grouped}
+ * with the move below them, so that a whole group (such as a chain of auto play moves) is undone and redone together.
+ */
+public class MoveStack {
+    /**
+     * Flag set on a packed move which continues the group of the move below it
+     */
+    private static final int GROUPED = 1 << 29;
+    /**
+     * Offset added to move locations (-12 through 13) so that they are never negative
+     */
+    private static final int LOCATION_OFFSET = 12;
+    /**
+     * Every move type, indexed by ordinal
+     */
+    private static final Move.Type[] TYPES = Move.Type.values();
+
+    /**
+     * Gets the first card of the given packed move
+     *
+     * @param packedMove Packed move
+     * @return The card if a move of a single card or bottom card of the cascade if it is a multiple card move, or
+     * Cards.NONE if the move involves no cards
+     */
+    public static int getCard(final int packedMove) {
+        return packedMove >>> 21 & 0xFF;
+    }
+
+    /**
+     * Gets the number of cards moved by the given packed move
+     *
+     * @param packedMove Packed move
+     * @return The number of cards in the cascade of the move
+     */
+    public static int getCascadeSize(final int packedMove) {
+        return packedMove >>> 13 & 0xFF;
+    }
+
+    /**
+     * Gets the source location of the given packed move
+     *
+     * @param packedMove Packed move
+     * @return The source location, in the format of {@link Move#getFromIndex()}
+     */
+    public static int getFromIndex(final int packedMove) {
+        return (packedMove >>> 8 & 0x1F) - MoveStack.LOCATION_OFFSET;
+    }
+
+    /**
+     * Gets the destination location of the given packed move
+     *
+     * @param packedMove Packed move
+     * @return The destination location, in the format of {@link Move#getToIndex()}
+     */
+    public static int getToIndex(final int packedMove) {
+        return (packedMove >>> 3 & 0x1F) - MoveStack.LOCATION_OFFSET;
+    }
+
+    /**
+     * Gets the type of the given packed move
+     *
+     * @param packedMove Packed move
+     * @return The type of the move
+     */
+    public static Move.Type getType(final int packedMove) {
+        return MoveStack.TYPES[packedMove & 0x7];
+    }
+
+    /**
+     * Marks the given packed move as continuing the group of the move below it on the stack
+     *
+     * @param packedMove Packed move
+     * @return The grouped packed move
+     */
+    public static int group(final int packedMove) {
+        return packedMove | MoveStack.GROUPED;
+    }
+
+    /**
+     * Whether the given packed move continues the group of the move below it on the stack
+     *
+     * @param packedMove Packed move
+     * @return Whether the move is grouped with the move below it
+     */
+    public static boolean isGrouped(final int packedMove) {
+        return (packedMove & MoveStack.GROUPED) != 0;
+    }
+
+    /**
+     * Packs the given move into a single int
+     *
+     * @param move Move to pack
+     * @return The packed move
+     */
+    public static int pack(final Move move) {
+        return move.getType().ordinal() | (move.getToIndex() + MoveStack.LOCATION_OFFSET) << 3
+                | (move.getFromIndex() + MoveStack.LOCATION_OFFSET) << 8 | move.getCascade().length << 13
+                | move.getCard() << 21;
+    }
+
+    /**
+     * Index after the last move which can be redone
+     */
+    private int end = 0;
+    /**
+     * Packed moves in this stack, starting with the bottom (oldest) move
+     */
+    private int[] packedMoves = new int[64];
+    /**
+     * Number of moves in this stack
+     */
+    private int size = 0;
+
+    /**
+     * Whether there is an undone move which can be redone
+     *
+     * @return Whether there is a move to redo
+     */
+    public boolean canRedo() {
+        return size < end;
+    }
+
+    /**
+     * Removes all moves from this stack, including those which could be redone
+     */
+    public void clear() {
+        size = 0;
+        end = 0;
+    }
+
+    /**
+     * Gets a packed move from this stack without removing it
+     *
+     * @param index Index of the move, where 0 is the bottom (oldest) move. Indexes up to {@link #getEnd()} include
+     *              moves which were undone
+     * @return The packed move
+     */
+    public int get(final int index) {
+        return packedMoves[index];
+    }
+
+    /**
+     * Gets the index after the last move which can be redone
+     *
+     * @return The number of moves in this stack if every undone move was redone
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * Whether this stack is empty
+     *
+     * @return Whether there are no moves in this stack
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the next move to redo without redoing it. Should only be called when {@link #canRedo()}
+     *
+     * @return The packed move which would be redone
+     */
+    public int peekRedo() {
+        return packedMoves[size];
+    }
+
+    /**
+     * Removes the top (most recent) move of this stack, keeping it to be redone. Should only be called when the stack
+     * is not empty
+     *
+     * @return The packed move removed
+     */
+    public int pop() {
+        return packedMoves[--size];
+    }
+
+    /**
+     * Adds a packed move to the top of this stack, growing the stack as needed. If the move is the next move to redo
+     * (whether or not they are grouped alike), it is redone; otherwise, all moves which could be redone are discarded
+     *
+     * @param packedMove Packed move to add
+     * @return Whether the move was the next move to redo
+     */
+    public boolean push(final int packedMove) {
+        if (size < end && ((packedMoves[size] ^ packedMove) & ~MoveStack.GROUPED) == 0) {
+            packedMoves[size++] = packedMove;
+            return true;
+        }
+        if (size == packedMoves.length) {
+            final int[] grownPackedMoves = new int[2 * size];
+            System.arraycopy(packedMoves, 0, grownPackedMoves, 0, size);
+            packedMoves = grownPackedMoves;
+        }
+        packedMoves[size++] = packedMove;
+        end = size;
+        return false;
+    }
+
+    /**
+     * Moves the top of this stack along the timeline, as if moves were popped or redone
+     *
+     * @param newSize New number of moves in this stack, between 0 and {@link #getEnd()}
+     */
+    public void setSize(final int newSize) {
+        size = newSize;
+    }
+
+    /**
+     * Gets the number of moves in this stack
+     *
+     * @return The number of moves in this stack
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,390 @@
+package com.github.triplesolitaire.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact, versioned binary form of a game in progress: the deal number, the hash of the position and the undo stack
+ * (which replayed against the deal rebuilds the position). The encoding (version 1) is:
+ * <ul>
+ * <li>The version, as one byte</li>
+ * <li>The deal number and the hash, as eight bytes each (most significant byte first)</li>
+ * <li>The number of moves, as a varint</li>
+ * <li>Each move as a varint packing its type (3 bits), destination (5 bits) and source (5 bits) locations, the
+ * number of cards moved (8 bits) and whether it is grouped with the move before it (1 bit), followed by one byte per
+ * card moved</li>
+ * </ul>
+ * Varints store 7 bits per byte, least significant first, with the high bit set on all but the last byte.
+ * <p/>
+ * Moves can also be encoded one at a time, in the same form, for a journal of the game. A journal can also hold jumps
+ * along the undo/redo timeline, encoded as a varint with the otherwise unused type 7 in its low 3 bits and the
+ * position jumped to in the rest.
+ */
+public class SavedGame {
+    /**
+     * Header bit marking a move which continues the group of the move before it (see {@link Move#isGrouped()}). Never
+     * set by a cascade size, as there are at most 156 cards
+     */
+    private static final int GROUPED = 1 << 21;
+    /**
+     * Type bits marking an encoded jump along the undo/redo timeline, never used by a move type
+     */
+    private static final int JUMP_TYPE = 7;
+    /**
+     * Offset added to move locations (-12 through 13) so that they are never negative
+     */
+    private static final int LOCATION_OFFSET = 12;
+    /**
+     * Current version of the encoding
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Decodes a SavedGame from the form returned by {@link #toByteArray()}
+     *
+     * @param bytes Encoded game
+     * @return The decoded game
+     * @throws IllegalArgumentException If the bytes are not a valid encoded game of a known version
+     */
+    public static SavedGame fromByteArray(final byte[] bytes) {
+        final Reader reader = new Reader(bytes);
+        final int version = reader.readByte();
+        if (version != SavedGame.VERSION)
+            throw new IllegalArgumentException("Unknown saved game version " + version);
+        final long deal = reader.readLong();
+        final long hash = reader.readLong();
+        final int moveCount = reader.readVarint();
+        // Every move takes at least one byte, so a larger count can only come from corrupt data
+        if (moveCount > bytes.length)
+            throw new IllegalArgumentException("Invalid move count " + moveCount);
+        final List<Move> moves = new ArrayList<>(moveCount);
+        for (int moveIndex = 0; moveIndex < moveCount; moveIndex++)
+            moves.add(SavedGame.readMove(reader));
+        if (reader.hasRemaining())
+            throw new IllegalArgumentException("Unexpected data after the last move");
+        return new SavedGame(deal, hash, moves);
+    }
+
+    /**
+     * Packs the type, locations and number of cards of the given move into a single int
+     *
+     * @param move Move to pack
+     * @return The packed move header
+     */
+    private static int header(final Move move) {
+        return move.getType().ordinal() | (move.getToIndex() + SavedGame.LOCATION_OFFSET) << 3
+                | (move.getFromIndex() + SavedGame.LOCATION_OFFSET) << 8 | move.getCascade().length << 13
+                | (move.isGrouped() ? SavedGame.GROUPED : 0);
+    }
+
+    /**
+     * Whether the given journal record is an encoded jump (rather than an encoded move)
+     *
+     * @param bytes Journal record, as returned by {@link #jumpToByteArray(int)} or {@link #moveToByteArray(Move)}
+     * @return Whether the record is an encoded jump
+     */
+    public static boolean isJump(final byte[] bytes) {
+        return bytes.length > 0 && (bytes[0] & 0x7) == SavedGame.JUMP_TYPE;
+    }
+
+    /**
+     * Decodes a jump along the undo/redo timeline from the form returned by {@link #jumpToByteArray(int)}
+     *
+     * @param bytes Encoded jump
+     * @return The position jumped to
+     * @throws IllegalArgumentException If the bytes are not a valid encoded jump
+     */
+    public static int jumpFromByteArray(final byte[] bytes) {
+        final Reader reader = new Reader(bytes);
+        final int header = reader.readVarint();
+        if ((header & 0x7) != SavedGame.JUMP_TYPE || reader.hasRemaining())
+            throw new IllegalArgumentException("Invalid jump");
+        return header >>> 3;
+    }
+
+    /**
+     * Encodes a jump along the undo/redo timeline, for storing in a journal alongside moves
+     *
+     * @param position Position jumped to (i.e., the number of moves on the undo stack after the jump)
+     * @return The encoded jump
+     */
+    public static byte[] jumpToByteArray(final int position) {
+        final int header = SavedGame.JUMP_TYPE | position << 3;
+        final byte[] bytes = new byte[SavedGame.varintSize(header)];
+        SavedGame.writeVarint(bytes, 0, header);
+        return bytes;
+    }
+
+    /**
+     * Decodes a single move from the form returned by {@link #moveToByteArray(Move)}
+     *
+     * @param bytes Encoded move
+     * @return The decoded move
+     * @throws IllegalArgumentException If the bytes are not a valid encoded move
+     */
+    public static Move moveFromByteArray(final byte[] bytes) {
+        final Reader reader = new Reader(bytes);
+        final Move move = SavedGame.readMove(reader);
+        if (reader.hasRemaining())
+            throw new IllegalArgumentException("Unexpected data after the move");
+        return move;
+    }
+
+    /**
+     * Gets the number of bytes needed to encode the given move
+     *
+     * @param move Move to encode
+     * @return The number of bytes of the encoded move
+     */
+    private static int moveSize(final Move move) {
+        return SavedGame.varintSize(SavedGame.header(move)) + move.getCascade().length;
+    }
+
+    /**
+     * Encodes a single move in the same form used for each move of a saved game, for storing moves one at a time
+     *
+     * @param move Move to encode
+     * @return The encoded move
+     */
+    public static byte[] moveToByteArray(final Move move) {
+        final byte[] bytes = new byte[SavedGame.moveSize(move)];
+        SavedGame.writeMove(bytes, 0, move);
+        return bytes;
+    }
+
+    /**
+     * Reads a single move
+     *
+     * @param reader Reader positioned at the start of the move
+     * @return The move read
+     * @throws IllegalArgumentException If the move is truncated or has an invalid type, location or card
+     */
+    private static Move readMove(final Reader reader) {
+        final int header = reader.readVarint();
+        final Move.Type[] types = Move.Type.values();
+        final int typeOrdinal = header & 0x7;
+        if (typeOrdinal >= types.length)
+            throw new IllegalArgumentException("Invalid move type " + typeOrdinal);
+        final int toIndex = (header >>> 3 & 0x1F) - SavedGame.LOCATION_OFFSET;
+        final int fromIndex = (header >>> 8 & 0x1F) - SavedGame.LOCATION_OFFSET;
+        if (toIndex > 13 || fromIndex > 13)
+            throw new IllegalArgumentException("Invalid move location " + toIndex + " or " + fromIndex);
+        final int cascadeSize = header >>> 13 & 0xFF;
+        if (cascadeSize > Cards.DECK_SIZE || header >>> 22 != 0)
+            throw new IllegalArgumentException("Invalid cascade size " + cascadeSize + " or header " + header);
+        final int[] cascade = new int[cascadeSize];
+        for (int cascadeIndex = 0; cascadeIndex < cascadeSize; cascadeIndex++) {
+            cascade[cascadeIndex] = reader.readByte();
+            if (!Cards.isValid(cascade[cascadeIndex]))
+                throw new IllegalArgumentException("Invalid card " + cascade[cascadeIndex]);
+        }
+        final Move move = new Move(types[typeOrdinal], toIndex, fromIndex, cascade);
+        return (header & SavedGame.GROUPED) != 0 ? move.toGrouped() : move;
+    }
+
+    /**
+     * Gets the number of bytes needed to store the given value as a varint
+     *
+     * @param value Non-negative value to store
+     * @return The number of bytes of the varint
+     */
+    private static int varintSize(final int value) {
+        int size = 1;
+        for (int remaining = value >>> 7; remaining != 0; remaining >>>= 7)
+            size++;
+        return size;
+    }
+
+    /**
+     * Writes a long most significant byte first
+     *
+     * @param bytes    Array to write to
+     * @param position Index to write the first byte at
+     * @param value    Value to write
+     * @return The index after the last byte written
+     */
+    private static int writeLong(final byte[] bytes, final int position, final long value) {
+        for (int byteIndex = 0; byteIndex < 8; byteIndex++)
+            bytes[position + byteIndex] = (byte) (value >>> 56 - 8 * byteIndex);
+        return position + 8;
+    }
+
+    /**
+     * Writes a single move
+     *
+     * @param bytes    Array to write to
+     * @param position Index to write the first byte at
+     * @param move     Move to write
+     * @return The index after the last byte written
+     */
+    private static int writeMove(final byte[] bytes, final int position, final Move move) {
+        int nextPosition = SavedGame.writeVarint(bytes, position, SavedGame.header(move));
+        for (final int card : move.getCascade())
+            bytes[nextPosition++] = (byte) card;
+        return nextPosition;
+    }
+
+    /**
+     * Writes a non-negative value as a varint
+     *
+     * @param bytes    Array to write to
+     * @param position Index to write the first byte at
+     * @param value    Value to write
+     * @return The index after the last byte written
+     */
+    private static int writeVarint(final byte[] bytes, final int position, final int value) {
+        int nextPosition = position;
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            bytes[nextPosition++] = (byte) (remaining & 0x7F | 0x80);
+            remaining >>>= 7;
+        }
+        bytes[nextPosition++] = (byte) remaining;
+        return nextPosition;
+    }
+
+    /**
+     * Reads the fields of an encoded game in order, failing on truncated data
+     */
+    private static class Reader {
+        /**
+         * Encoded game
+         */
+        private final byte[] bytes;
+        /**
+         * Index of the next byte to read
+         */
+        private int position = 0;
+
+        /**
+         * Creates a Reader for the given encoded game
+         *
+         * @param bytes Encoded game
+         */
+        Reader(final byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        /**
+         * Whether there are unread bytes left
+         *
+         * @return Whether there are unread bytes left
+         */
+        boolean hasRemaining() {
+            return position < bytes.length;
+        }
+
+        /**
+         * Reads a single unsigned byte
+         *
+         * @return The byte read (0 through 255)
+         */
+        int readByte() {
+            if (position >= bytes.length)
+                throw new IllegalArgumentException("Saved game is truncated");
+            return bytes[position++] & 0xFF;
+        }
+
+        /**
+         * Reads a long stored most significant byte first
+         *
+         * @return The long read
+         */
+        long readLong() {
+            long value = 0;
+            for (int byteIndex = 0; byteIndex < 8; byteIndex++)
+                value = value << 8 | readByte();
+            return value;
+        }
+
+        /**
+         * Reads a non-negative int stored as a varint
+         *
+         * @return The int read
+         */
+        int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 31; shift += 7) {
+                final int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                    return value;
+            }
+            throw new IllegalArgumentException("Varint is too long");
+        }
+    }
+
+    /**
+     * Deal number of the game
+     */
+    private final long deal;
+    /**
+     * Hash of the position reached by replaying the moves
+     */
+    private final long hash;
+    /**
+     * Undoable moves made since the deal, oldest first
+     */
+    private final List<Move> moves;
+
+    /**
+     * Creates a new SavedGame
+     *
+     * @param deal  Deal number of the game
+     * @param hash  Hash of the position reached by replaying the moves (see {@link Game#getHash()})
+     * @param moves Undoable moves made since the deal, oldest first
+     */
+    public SavedGame(final long deal, final long hash, final List<Move> moves) {
+        this.deal = deal;
+        this.hash = hash;
+        this.moves = moves;
+    }
+
+    /**
+     * Getter for the deal number of the game
+     *
+     * @return The deal number of the game
+     */
+    public long getDeal() {
+        return deal;
+    }
+
+    /**
+     * Getter for the hash of the position reached by replaying the moves
+     *
+     * @return The hash of the saved position
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Getter for the undoable moves made since the deal
+     *
+     * @return The moves, oldest first
+     */
+    public List<Move> getMoves() {
+        return moves;
+    }
+
+    /**
+     * Encodes this game in the binary form described in {@link SavedGame}
+     *
+     * @return The encoded game
+     */
+    public byte[] toByteArray() {
+        // Exact size: the header plus, for each move, its header varint and its cards
+        int size = 1 + 8 + 8 + SavedGame.varintSize(moves.size());
+        for (final Move move : moves)
+            size += SavedGame.moveSize(move);
+        final byte[] bytes = new byte[size];
+        int position = 0;
+        bytes[position++] = SavedGame.VERSION;
+        position = SavedGame.writeLong(bytes, position, deal);
+        position = SavedGame.writeLong(bytes, position, hash);
+        position = SavedGame.writeVarint(bytes, position, moves.size());
+        for (final Move move : moves)
+            position = SavedGame.writeMove(bytes, position, move);
+        return bytes;
+    }
+}
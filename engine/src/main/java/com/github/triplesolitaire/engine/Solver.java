@@ -0,0 +1,337 @@
+package com.github.triplesolitaire.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Searches a {@link Game} position for a sequence of moves that wins the game. The search is a depth first search over
+ * a private copy of the position, applying and undoing moves with {@link Game#apply(Move)} so that no UI callbacks are
+ * issued. Positions already searched are remembered by their {@link Game#getHash() Zobrist hash} in a fixed size
+ * transposition table (so that the repeated STOCK clicks and cascades moving back and forth do not lead to endless
+ * searches) and the search stops once the node or time budget is exhausted.
+ * <p/>
+ * Moves are ordered so that the most promising moves are searched first:
+ * <ol>
+ * <li>Forced moves (flipping over a face down card, playing an ace or two to the foundation) are the only move
+ * searched</li>
+ * <li>Moves to the foundation</li>
+ * <li>Moves of a full cascade that uncover a face down card, with the largest stack first</li>
+ * <li>Moves from the waste to a lane</li>
+ * <li>Moves of a full cascade that empty a lane and moves of part of a cascade that uncover a card which can be played
+ * to the foundation</li>
+ * <li>Clicking the stock</li>
+ * </ol>
+ * Moves from the foundation back to a lane and other moves of part of a cascade are never searched, so an UNSOLVED result
+ * means that no solution was found using those moves rather than a proof that the deal is unwinnable.
+ * <p/>
+ * Solvers are not thread safe, but can be reused for any number of positions.
+ */
+public class Solver {
+    /**
+     * Enum representing the results of a search
+     */
+    public enum Result {
+        /**
+         * A winning sequence of moves was found
+         */
+        SOLVED, /**
+         * Every position reachable with the searched moves was searched without finding a win
+         */
+        UNSOLVED, /**
+         * The node or time budget was exhausted before the search completed
+         */
+        BUDGET_EXCEEDED
+    }
+
+    /**
+     * Default maximum number of positions to search
+     */
+    public static final int DEFAULT_MAX_NODES = 200000;
+    /**
+     * Default maximum time to search, in milliseconds
+     */
+    public static final long DEFAULT_MAX_TIME_MILLIS = 5000;
+    /**
+     * Number of positions searched between checks of the time budget
+     */
+    private static final int TIME_CHECK_INTERVAL = 256;
+
+    /**
+     * Moves to search at each depth of the search
+     */
+    private final ArrayList<ArrayList<Move>> candidates = new ArrayList<>();
+    /**
+     * Private copy of the position being searched
+     */
+    private final Game game = new Game();
+    /**
+     * Maximum number of positions to search
+     */
+    private final int maxNodes;
+    /**
+     * Maximum time to search, in milliseconds
+     */
+    private final long maxTimeMillis;
+    /**
+     * Index of the next move to search at each depth of the search
+     */
+    private int[] nextCandidate = new int[256];
+    /**
+     * Number of positions searched by the last search
+     */
+    private int nodeCount = 0;
+    /**
+     * Moves applied to reach the position currently being searched, in undoable form
+     */
+    private final ArrayList<Move> path = new ArrayList<>();
+    /**
+     * Winning moves found by the last search
+     */
+    private List<Move> solution = Collections.emptyList();
+    /**
+     * Open addressing hash set of the positions already searched, where 0 marks an empty slot
+     */
+    private final long[] transpositionTable;
+
+    /**
+     * Creates a new Solver with the default node and time budget
+     */
+    public Solver() {
+        this(Solver.DEFAULT_MAX_NODES, Solver.DEFAULT_MAX_TIME_MILLIS);
+    }
+
+    /**
+     * Creates a new Solver
+     *
+     * @param maxNodes      Maximum number of positions to search
+     * @param maxTimeMillis Maximum time to search, in milliseconds
+     */
+    public Solver(final int maxNodes, final long maxTimeMillis) {
+        this.maxNodes = maxNodes;
+        this.maxTimeMillis = maxTimeMillis;
+        // Keep the table at most half full so that probe sequences stay short
+        transpositionTable = new long[Integer.highestOneBit(Math.max(maxNodes, 1)) << 2];
+    }
+
+    /**
+     * Adds the moves of a full cascade to the other lanes. Moves that would only shuffle a king between empty lanes are
+     * skipped
+     *
+     * @param laneIndex Zero-based index of the lane to move the cascade from
+     * @param moves     List to add the moves to
+     */
+    private void addCascadeMoves(final int laneIndex, final List<Move> moves) {
+        final LaneData from = game.lane[laneIndex];
+        final int bottomCard = from.getCascadeCard(0);
+        if (Cards.getRank(bottomCard) == Cards.KING && from.isStackEmpty())
+            return;
+        int[] cascade = null;
+        for (int lanes = game.getAcceptingLanes(bottomCard) & ~(1 << laneIndex); lanes != 0; lanes &= lanes - 1) {
+            if (cascade == null)
+                cascade = from.toCascadeArray();
+            moves.add(new Move(Move.Type.PLAYER_MOVE, Integer.numberOfTrailingZeros(lanes) + 1, laneIndex + 1,
+                    cascade));
+        }
+    }
+
+    /**
+     * Adds the move of the given card to the foundation, if any foundation accepts it. As foundations of the same suit
+     * are interchangeable, only the first accepting foundation is used
+     *
+     * @param fromIndex Source location in Move format
+     * @param card      Card to move
+     * @param moves     List to add the move to
+     * @return Whether a move was added
+     */
+    private boolean addFoundationMove(final int fromIndex, final int card, final List<Move> moves) {
+        final int foundationIndex = game.getAcceptingFoundation(card);
+        if (foundationIndex == 0)
+            return false;
+        moves.add(new Move(Move.Type.PLAYER_MOVE, foundationIndex, fromIndex, card));
+        return true;
+    }
+
+    /**
+     * Adds the moves of part of a cascade to the other lanes where the card uncovered can then be played to the
+     * foundation
+     *
+     * @param laneIndex Zero-based index of the lane to move the cascade from
+     * @param moves     List to add the moves to
+     */
+    private void addPartialCascadeMoves(final int laneIndex, final List<Move> moves) {
+        final LaneData from = game.lane[laneIndex];
+        final int cascadeSize = from.getCascadeSize();
+        for (int cascadeIndex = 1; cascadeIndex < cascadeSize; cascadeIndex++) {
+            if (game.getAcceptingFoundation(from.getCascadeCard(cascadeIndex - 1)) == 0)
+                continue;
+            final int bottomCard = from.getCascadeCard(cascadeIndex);
+            for (int lanes = game.getAcceptingLanes(bottomCard) & ~(1 << laneIndex); lanes != 0; lanes &= lanes - 1)
+                moves.add(new Move(Move.Type.PLAYER_MOVE, Integer.numberOfTrailingZeros(lanes) + 1, laneIndex + 1,
+                        from.copyCascade(cascadeSize - cascadeIndex)));
+        }
+    }
+
+    /**
+     * Generates the moves to search from the current position, most promising first
+     *
+     * @param moves List to fill with the moves to search
+     */
+    private void generateMoves(final List<Move> moves) {
+        moves.clear();
+        // Forced moves
+        for (int laneIndex = 0; laneIndex < 13; laneIndex++) {
+            final LaneData laneData = game.lane[laneIndex];
+            if (laneData.isCascadeEmpty()) {
+                if (!laneData.isStackEmpty()) {
+                    moves.add(new Move(Move.Type.FLIP, laneIndex + 1));
+                    return;
+                }
+            } else if (Cards.getRank(laneData.getTopCascadeCard()) <= 2
+                    && addFoundationMove(laneIndex + 1, laneData.getTopCascadeCard(), moves))
+                return;
+        }
+        final int wasteCard = game.waste.peek(0);
+        if (wasteCard != Cards.NONE && Cards.getRank(wasteCard) <= 2 && addFoundationMove(0, wasteCard, moves))
+            return;
+        // Moves to the foundation
+        for (int laneIndex = 0; laneIndex < 13; laneIndex++)
+            if (!game.lane[laneIndex].isCascadeEmpty())
+                addFoundationMove(laneIndex + 1, game.lane[laneIndex].getTopCascadeCard(), moves);
+        if (wasteCard != Cards.NONE)
+            addFoundationMove(0, wasteCard, moves);
+        // Full cascade moves uncovering a face down card, largest stack first
+        for (int stackSize = 12; stackSize > 0; stackSize--)
+            for (int laneIndex = 0; laneIndex < 13; laneIndex++)
+                if (game.lane[laneIndex].getStackSize() == stackSize && !game.lane[laneIndex].isCascadeEmpty())
+                    addCascadeMoves(laneIndex, moves);
+        // Moves from the waste to a lane
+        if (wasteCard != Cards.NONE)
+            for (int lanes = game.getAcceptingLanes(wasteCard); lanes != 0; lanes &= lanes - 1)
+                moves.add(new Move(Move.Type.PLAYER_MOVE, Integer.numberOfTrailingZeros(lanes) + 1, 0, wasteCard));
+        // Full cascade moves emptying a lane and partial cascade moves uncovering a card for the foundation
+        for (int laneIndex = 0; laneIndex < 13; laneIndex++)
+            if (!game.lane[laneIndex].isCascadeEmpty()) {
+                if (game.lane[laneIndex].isStackEmpty())
+                    addCascadeMoves(laneIndex, moves);
+                addPartialCascadeMoves(laneIndex, moves);
+            }
+        // Clicking the stock
+        if (!game.stock.isEmpty() || !game.waste.isEmpty())
+            moves.add(new Move(Move.Type.STOCK));
+    }
+
+    /**
+     * Gets the list of moves to search at the given depth, creating it if necessary
+     *
+     * @param depth Depth of the search
+     * @return The (reused) list of moves at the given depth
+     */
+    private ArrayList<Move> getCandidates(final int depth) {
+        if (depth == candidates.size())
+            candidates.add(new ArrayList<Move>());
+        if (depth == nextCandidate.length)
+            nextCandidate = Arrays.copyOf(nextCandidate, 2 * depth);
+        return candidates.get(depth);
+    }
+
+    /**
+     * Getter for the number of positions searched by the last search
+     *
+     * @return The number of positions searched by the last search
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Gets the winning moves found by the last search. The moves can be passed to {@link Game#move(Move)} in order,
+     * starting from the searched position
+     *
+     * @return The winning moves found by the last search, or an empty list if the last search did not return SOLVED
+     */
+    public List<Move> getSolution() {
+        return solution;
+    }
+
+    /**
+     * Searches the given position for a winning sequence of moves. The given game is not modified
+     *
+     * @param position Game whose current position should be searched
+     * @return The result of the search. If SOLVED, the winning moves are available from {@link #getSolution()}
+     */
+    public Result solve(final Game position) {
+        return solve(position, System.nanoTime() + maxTimeMillis * 1000000);
+    }
+
+    /**
+     * Searches the given position for a winning sequence of moves, stopping at the given deadline if it comes before
+     * the end of the time budget. The given game is not modified
+     *
+     * @param position Game whose current position should be searched
+     * @param deadline Time to stop searching, in {@link System#nanoTime()} terms
+     * @return The result of the search. If SOLVED, the winning moves are available from {@link #getSolution()}
+     */
+    public Result solve(final Game position, final long deadline) {
+        Arrays.fill(transpositionTable, 0);
+        nodeCount = 0;
+        path.clear();
+        solution = Collections.emptyList();
+        game.copyFrom(position);
+        if (game.isWon())
+            return Result.SOLVED;
+        visit(game.getHash());
+        int depth = 0;
+        generateMoves(getCandidates(depth));
+        nextCandidate[depth] = 0;
+        while (true) {
+            final ArrayList<Move> moves = candidates.get(depth);
+            if (nextCandidate[depth] == moves.size()) {
+                // Every move from this position has been searched, so backtrack
+                if (depth == 0)
+                    return Result.UNSOLVED;
+                game.apply(path.remove(path.size() - 1).toUndo());
+                depth--;
+                continue;
+            }
+            final Move undoableMove = game.apply(moves.get(nextCandidate[depth]++));
+            if (!visit(game.getHash())) {
+                game.apply(undoableMove.toUndo());
+                continue;
+            }
+            path.add(undoableMove);
+            if (game.isWon()) {
+                solution = new ArrayList<>(path);
+                return Result.SOLVED;
+            }
+            nodeCount++;
+            if (nodeCount >= maxNodes
+                    || (nodeCount % Solver.TIME_CHECK_INTERVAL == 0 && System.nanoTime() - deadline > 0))
+                return Result.BUDGET_EXCEEDED;
+            depth++;
+            generateMoves(getCandidates(depth));
+            nextCandidate[depth] = 0;
+        }
+    }
+
+    /**
+     * Marks the given position as searched
+     *
+     * @param hash Hash of the position
+     * @return Whether the position had not already been searched
+     */
+    private boolean visit(final long hash) {
+        // 0 marks an empty slot, so remap the (unlikely) 0 hash
+        final long key = hash == 0 ? 1 : hash;
+        final int mask = transpositionTable.length - 1;
+        int slot = (int) (key ^ (key >>> 29)) & mask;
+        while (transpositionTable[slot] != 0) {
+            if (transpositionTable[slot] == key)
+                return false;
+            slot = (slot + 1) & mask;
+        }
+        transpositionTable[slot] = key;
+        return true;
+    }
+}
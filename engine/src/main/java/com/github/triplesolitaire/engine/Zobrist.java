@@ -0,0 +1,126 @@
+package com.github.triplesolitaire.engine;
+
+/**
+ * Random keys used to build the 64-bit Zobrist hash of a game position. The hash of a position is the XOR of one key
+ * for each of the following, so that a move only needs to XOR out the keys of what it changes and XOR in the new ones:
+ * <ul>
+ * <li>The stack size of each lane. Stack cards only ever leave the top of a stack, so the deal and the stack size
+ * determine the stack</li>
+ * <li>Each cascade card in each lane. A cascade is always in descending rank, so the cards determine their order</li>
+ * <li>The face of the top card of each foundation</li>
+ * <li>Each card in the stock or waste and the size of the waste. Cards in the stock and waste always stay in the order
+ * they were dealt (waste bottom to top followed by stock top to bottom), which is unchanged by clicking the stock, so
+ * the cards and the size of the waste determine both piles</li>
+ * </ul>
+ * Keys are generated from a fixed seed, so hashes are stable across runs.
+ */
+final class Zobrist {
+    /**
+     * Number of distinct card values (including unused values in the card encoding)
+     */
+    private static final int CARD_VALUES = 1 << 8;
+    /**
+     * Keys for each card in each lane's cascade, indexed by [laneIndex * CARD_VALUES + card]
+     */
+    private static final long[] CASCADE = new long[13 * CARD_VALUES];
+    /**
+     * Keys for each face on each foundation, indexed by [foundationIndex * CARD_VALUES + face]
+     */
+    private static final long[] FOUNDATION = new long[12 * CARD_VALUES];
+    /**
+     * Keys for each stack size of each lane, indexed by [laneIndex * 13 + stackSize]
+     */
+    private static final long[] STACK = new long[13 * 13];
+    /**
+     * Keys for each card in the stock or waste
+     */
+    private static final long[] TALON = new long[CARD_VALUES];
+    /**
+     * Keys for each waste size
+     */
+    private static final long[] WASTE_SIZE = new long[Cards.DECK_SIZE + 1];
+
+    static {
+        final long[] state = {0x2A0B1575L};
+        fill(Zobrist.CASCADE, state);
+        fill(Zobrist.FOUNDATION, state);
+        fill(Zobrist.STACK, state);
+        fill(Zobrist.TALON, state);
+        fill(Zobrist.WASTE_SIZE, state);
+    }
+
+    /**
+     * Gets the key for the given card in the cascade of the given lane
+     *
+     * @param laneIndex Zero-based index (0 through 12)
+     * @param card      Card in the cascade
+     * @return The key for the card in the cascade
+     */
+    static long cascade(final int laneIndex, final int card) {
+        return Zobrist.CASCADE[laneIndex * Zobrist.CARD_VALUES + card];
+    }
+
+    /**
+     * Fills the given keys from a SplitMix64 generator
+     *
+     * @param keys  Keys to fill
+     * @param state Single element array holding the generator state, updated as keys are generated
+     */
+    private static void fill(final long[] keys, final long[] state) {
+        for (int keyIndex = 0; keyIndex < keys.length; keyIndex++) {
+            state[0] += 0x9E3779B97F4A7C15L;
+            long random = state[0];
+            random = (random ^ (random >>> 30)) * 0xBF58476D1CE4E5B9L;
+            random = (random ^ (random >>> 27)) * 0x94D049BB133111EBL;
+            keys[keyIndex] = random ^ (random >>> 31);
+        }
+    }
+
+    /**
+     * Gets the key for the given top card of the given foundation
+     *
+     * @param foundationIndex Zero-based index (0 through 11)
+     * @param card            Top card of the foundation or Cards.NONE if the foundation is empty
+     * @return The key for the foundation card
+     */
+    static long foundation(final int foundationIndex, final int card) {
+        return Zobrist.FOUNDATION[foundationIndex * Zobrist.CARD_VALUES + Cards.getFace(card)];
+    }
+
+    /**
+     * Gets the key for the given stack size of the given lane
+     *
+     * @param laneIndex Zero-based index (0 through 12)
+     * @param stackSize Number of face down cards in the lane
+     * @return The key for the stack size
+     */
+    static long stack(final int laneIndex, final int stackSize) {
+        return Zobrist.STACK[laneIndex * 13 + stackSize];
+    }
+
+    /**
+     * Gets the key for the given card being in the stock or waste
+     *
+     * @param card Card in the stock or waste
+     * @return The key for the card
+     */
+    static long talon(final int card) {
+        return Zobrist.TALON[card];
+    }
+
+    /**
+     * Gets the key for the given waste size
+     *
+     * @param wasteSize Number of cards in the waste
+     * @return The key for the waste size
+     */
+    static long wasteSize(final int wasteSize) {
+        return Zobrist.WASTE_SIZE[wasteSize];
+    }
+
+    /**
+     * This class cannot be instantiated
+     */
+    private Zobrist() {
+    }
+}
@@ -0,0 +1,120 @@
+package com.github.triplesolitaire.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link Checkpoints}, recording every position of a random game as the undo/redo timeline does
+ */
+public class CheckpointsTest {
+    /**
+     * Number of moves played in each game
+     */
+    private static final int MOVE_COUNT = 600;
+
+    /**
+     * Plays random legal moves of the given game, recording each position in the given checkpoints
+     *
+     * @param game        Game to play
+     * @param checkpoints Checkpoints to record each position in
+     * @param hashes      Hash of each position, indexed by position, added to as moves are played
+     * @param random      Source of the moves
+     */
+    private static void playRandomMoves(final Game game, final Checkpoints checkpoints, final List<Long> hashes,
+                                        final Random random) {
+        for (int moveIndex = 0; moveIndex < CheckpointsTest.MOVE_COUNT; moveIndex++) {
+            final List<Move> legalMoves = game.getLegalMoves();
+            if (legalMoves.isEmpty())
+                return;
+            game.apply(legalMoves.get(random.nextInt(legalMoves.size())));
+            hashes.add(game.getHash());
+            checkpoints.record(game, hashes.size() - 1);
+        }
+    }
+
+    /**
+     * Asserts that restoring every recorded position restores the snapshot it claims, no further back than the
+     * interval from the position
+     *
+     * @param checkpoints Checkpoints to restore from
+     * @param hashes      Hash of each recorded position
+     */
+    private static void assertRestores(final Checkpoints checkpoints, final List<Long> hashes) {
+        final Game restored = new Game();
+        for (int position = 0; position < hashes.size(); position++) {
+            final int restoredPosition = checkpoints.restore(restored, position);
+            assertTrue("Restored " + restoredPosition + " for " + position, restoredPosition <= position
+                    && position - restoredPosition < checkpoints.getInterval());
+            assertEquals(hashes.get(restoredPosition).longValue(), restored.getHash());
+        }
+    }
+
+    /**
+     * Reaching the maximum number of snapshots must drop every other snapshot and double the interval, still keeping a
+     * snapshot within an interval of every position
+     */
+    @Test
+    public void testCompaction() {
+        final Random random = new Random(6);
+        final Game game = new Game();
+        game.newGame(random.nextLong() & Long.MAX_VALUE);
+        final Checkpoints checkpoints = new Checkpoints();
+        final List<Long> hashes = new ArrayList<>();
+        hashes.add(game.getHash());
+        checkpoints.record(game, 0);
+        CheckpointsTest.playRandomMoves(game, checkpoints, hashes, random);
+        assertTrue(checkpoints.getInterval() > 16);
+        CheckpointsTest.assertRestores(checkpoints, hashes);
+    }
+
+    /**
+     * Lowering the maximum number of snapshots must compact the existing snapshots rather than drop them, so that
+     * positions already passed stay covered, and later positions must keep being recorded
+     */
+    @Test
+    public void testSetMaxCheckpoints() {
+        final Random random = new Random(7);
+        for (int maxCheckpoints = 1; maxCheckpoints < Checkpoints.DEFAULT_MAX_CHECKPOINTS; maxCheckpoints++) {
+            final Game game = new Game();
+            game.newGame(random.nextLong() & Long.MAX_VALUE);
+            final Checkpoints checkpoints = new Checkpoints();
+            final List<Long> hashes = new ArrayList<>();
+            hashes.add(game.getHash());
+            checkpoints.record(game, 0);
+            CheckpointsTest.playRandomMoves(game, checkpoints, hashes, random);
+            checkpoints.setMaxCheckpoints(maxCheckpoints);
+            if (maxCheckpoints > 1)
+                CheckpointsTest.assertRestores(checkpoints, hashes);
+            CheckpointsTest.playRandomMoves(game, checkpoints, hashes, random);
+            if (maxCheckpoints > 1)
+                CheckpointsTest.assertRestores(checkpoints, hashes);
+        }
+    }
+
+    /**
+     * Truncating the timeline must drop only the snapshots after the position kept
+     */
+    @Test
+    public void testTruncate() {
+        final Random random = new Random(8);
+        final Game game = new Game();
+        game.newGame(random.nextLong() & Long.MAX_VALUE);
+        final Checkpoints checkpoints = new Checkpoints();
+        final List<Long> hashes = new ArrayList<>();
+        hashes.add(game.getHash());
+        checkpoints.record(game, 0);
+        CheckpointsTest.playRandomMoves(game, checkpoints, hashes, random);
+        final int position = hashes.size() / 2 + 5;
+        checkpoints.truncate(position);
+        final Game restored = new Game();
+        final int restoredPosition = checkpoints.restore(restored, hashes.size() - 1);
+        assertTrue(restoredPosition <= position);
+        assertEquals(hashes.get(restoredPosition).longValue(), restored.getHash());
+    }
+}
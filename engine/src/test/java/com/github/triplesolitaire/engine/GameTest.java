@@ -0,0 +1,260 @@
+package com.github.triplesolitaire.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the {@link Game} undo/redo timeline and of replaying its journal
+ */
+public class GameTest {
+    /**
+     * Enumerates every legal move of the given game the slow way, by scanning every cascade card, as the string form of
+     * each move
+     *
+     * @param game Game to enumerate the legal moves of
+     * @return The string form of every legal move, sorted
+     */
+    private static List<String> scanLegalMoves(final Game game) {
+        final List<String> legalMoves = new ArrayList<>();
+        final List<Move> sources = new ArrayList<>();
+        if (!game.isWasteEmpty())
+            sources.add(new Move(Move.Type.PLAYER_MOVE, 0, 0, game.getWasteCard(0)));
+        for (int foundationIndex = -1; foundationIndex >= -12; foundationIndex--)
+            if (game.getFoundationCard(foundationIndex) != Cards.NONE)
+                sources.add(new Move(Move.Type.PLAYER_MOVE, 0, foundationIndex,
+                        game.getFoundationCard(foundationIndex)));
+        for (int laneIndex = 1; laneIndex <= 13; laneIndex++) {
+            final int cascadeSize = game.getCascadeSize(laneIndex);
+            if (cascadeSize == 0 && game.getStackSize(laneIndex) > 0)
+                legalMoves.add(new Move(Move.Type.FLIP, laneIndex).toString());
+            for (int cascadeIndex = 0; cascadeIndex < cascadeSize; cascadeIndex++)
+                sources.add(new Move(Move.Type.PLAYER_MOVE, 0, laneIndex,
+                        game.buildCascadeString(laneIndex, cascadeSize - cascadeIndex)));
+        }
+        for (final Move source : sources) {
+            final int fromIndex = source.getFromIndex();
+            if (source.getCascade().length == 1 && fromIndex >= 0)
+                for (int foundationIndex = -1; foundationIndex >= -12; foundationIndex--)
+                    if (game.acceptFoundationDrop(foundationIndex, source.getCard()))
+                        legalMoves.add(new Move(Move.Type.PLAYER_MOVE, foundationIndex, fromIndex,
+                                source.getCascade()).toString());
+            final int lanes = game.getAcceptingLanes(source.getCascade()[0]);
+            for (int laneIndex = 1; laneIndex <= 13; laneIndex++)
+                if (laneIndex != fromIndex && (lanes & 1 << laneIndex - 1) != 0)
+                    legalMoves.add(new Move(Move.Type.PLAYER_MOVE, laneIndex, fromIndex, source.getCascade())
+                            .toString());
+        }
+        if (!game.isStockEmpty() || !game.isWasteEmpty())
+            legalMoves.add(new Move(Move.Type.STOCK).toString());
+        Collections.sort(legalMoves);
+        return legalMoves;
+    }
+
+    /**
+     * Plays random legal moves, without auto play, so that every move takes exactly one position of the timeline
+     *
+     * @param game      Game to play
+     * @param moveCount Number of moves to play
+     * @param random    Source of the moves
+     * @return Hash of each position along the timeline, indexed by position
+     */
+    private static List<Long> playRandomMoves(final Game game, final int moveCount, final Random random) {
+        final List<Long> hashes = new ArrayList<>();
+        hashes.add(game.getHash());
+        for (int moveIndex = 0; moveIndex < moveCount; moveIndex++) {
+            final List<Move> legalMoves = game.getLegalMoves();
+            if (legalMoves.isEmpty())
+                break;
+            game.move(legalMoves.get(random.nextInt(legalMoves.size())));
+            hashes.add(game.getHash());
+        }
+        return hashes;
+    }
+
+    /**
+     * Jumping to any position of the timeline, whether backwards or forwards and whatever the number of checkpoints,
+     * must rebuild that position, keeping every move to redo until a different move is made
+     */
+    @Test
+    public void testJumpTo() {
+        final Random random = new Random(9);
+        for (int maxCheckpoints = 1; maxCheckpoints <= 16; maxCheckpoints *= 2) {
+            final Game game = new Game();
+            game.setMaxCheckpoints(maxCheckpoints);
+            game.newGame(random.nextLong() & Long.MAX_VALUE);
+            final List<Long> hashes = GameTest.playRandomMoves(game, 400, random);
+            final int timelineLength = hashes.size() - 1;
+            for (int jump = 0; jump < 200; jump++) {
+                final int position = random.nextInt(timelineLength + 1);
+                game.jumpTo(position);
+                assertEquals(position, game.getTimelinePosition());
+                assertEquals(timelineLength, game.getTimelineLength());
+                assertEquals(hashes.get(position).longValue(), game.getHash());
+            }
+            // A new move replaces the rest of the timeline, but the positions before it remain
+            final int position = timelineLength / 2;
+            game.jumpTo(position);
+            final List<Long> newHashes = GameTest.playRandomMoves(game, 1, random);
+            if (game.getTimelineLength() == position + 1)
+                assertFalse(game.canRedo());
+            for (int jump = 0; jump <= position; jump++) {
+                game.jumpTo(jump);
+                assertEquals(hashes.get(jump).longValue(), game.getHash());
+            }
+            game.jumpTo(position + 1);
+            assertEquals(newHashes.get(1).longValue(), game.getHash());
+        }
+    }
+
+    /**
+     * The legal moves found through the held and wanted card indexes must be exactly those found by scanning every
+     * cascade card, whether the position was reached by moves, undos or jumps
+     */
+    @Test
+    public void testLegalMoves() {
+        final Random random = new Random(12);
+        for (int gameIndex = 0; gameIndex < 50; gameIndex++) {
+            final Game game = new Game();
+            game.newGame(random.nextLong() & Long.MAX_VALUE);
+            for (int action = 0; action < 200; action++) {
+                final List<Move> legalMoves = game.getLegalMoves();
+                final List<String> found = new ArrayList<>();
+                for (final Move move : legalMoves)
+                    found.add(move.toString());
+                Collections.sort(found);
+                assertEquals(GameTest.scanLegalMoves(game), found);
+                final int choice = random.nextInt(20);
+                if (choice == 0)
+                    game.jumpTo(random.nextInt(game.getTimelineLength() + 1));
+                else if (choice <= 2)
+                    game.undo();
+                else if (!legalMoves.isEmpty())
+                    game.move(legalMoves.get(random.nextInt(legalMoves.size())));
+            }
+        }
+    }
+
+    /**
+     * Undoing and redoing, whether a single move or a chain of auto play moves, must leave the move count untouched
+     */
+    @Test
+    public void testMoveCountUndoRedo() {
+        final Random random = new Random(13);
+        int groupedRedos = 0;
+        int singleRedos = 0;
+        for (int gameIndex = 0; gameIndex < 20; gameIndex++) {
+            final Game game = new Game();
+            game.setAutoFlip(true);
+            game.setAutoPlayMode(Game.AutoPlayMode.OBVIOUS);
+            game.newGame(random.nextLong() & Long.MAX_VALUE);
+            GameTest.playRandomMoves(game, 150, random);
+            final int moveCount = game.getMoveCount();
+            while (game.canUndo()) {
+                game.undo();
+                assertEquals(moveCount, game.getMoveCount());
+            }
+            while (game.canRedo()) {
+                final int position = game.getTimelinePosition();
+                game.redo();
+                assertEquals(moveCount, game.getMoveCount());
+                if (game.getTimelinePosition() > position + 1)
+                    groupedRedos++;
+                else
+                    singleRedos++;
+            }
+        }
+        assertTrue("No chain of auto play moves was redone", groupedRedos > 0);
+        assertTrue("No single move was redone", singleRedos > 0);
+    }
+
+    /**
+     * Restoring a game, whether from its journal or from a saved game, must keep its chains of auto play moves grouped,
+     * so that undoing steps back through the same positions as in the original game
+     */
+    @Test
+    public void testRestoreKeepsGroups() {
+        final Random random = new Random(11);
+        int groupedUndos = 0;
+        for (int gameIndex = 0; gameIndex < 50; gameIndex++) {
+            final SavedGameTest.JournalingGame game = new SavedGameTest.JournalingGame();
+            game.setAutoFlip(true);
+            game.setAutoPlayMode(Game.AutoPlayMode.OBVIOUS);
+            game.newGame(random.nextLong() & Long.MAX_VALUE);
+            GameTest.playRandomMoves(game, 150, random);
+            final Game fromJournal = new Game();
+            fromJournal.restoreJournal(game.getDeal(), game.journal);
+            final Game fromSavedGame = new Game();
+            fromSavedGame.restoreGame(game.getDeal(), SavedGame.fromByteArray(new SavedGame(game.getDeal(),
+                    game.getHash(), game.getMoveHistory()).toByteArray()).getMoves());
+            while (game.canUndo()) {
+                final int position = game.getTimelinePosition();
+                game.undo();
+                fromJournal.undo();
+                fromSavedGame.undo();
+                if (game.getTimelinePosition() < position - 1)
+                    groupedUndos++;
+                assertEquals(game.getTimelinePosition(), fromJournal.getTimelinePosition());
+                assertEquals(game.getHash(), fromJournal.getHash());
+                assertEquals(game.getTimelinePosition(), fromSavedGame.getTimelinePosition());
+                assertEquals(game.getHash(), fromSavedGame.getHash());
+            }
+        }
+        assertTrue("No chain of auto play moves was undone", groupedUndos > 0);
+    }
+
+    /**
+     * Replaying a journal with a record missing, which no longer matches its deal, must either succeed or be rejected
+     * with an IllegalArgumentException, rather than failing with any other exception
+     */
+    @Test
+    public void testRestoreJournalWithMissingRecord() {
+        final Random random = new Random(5);
+        for (int gameIndex = 0; gameIndex < 300; gameIndex++) {
+            final SavedGameTest.JournalingGame game = SavedGameTest.playRandomGame(random);
+            if (game.journal.isEmpty())
+                continue;
+            final List<byte[]> journal = new ArrayList<>(game.journal);
+            journal.remove(random.nextInt(journal.size()));
+            try {
+                new Game().restoreJournal(game.getDeal(), journal);
+            } catch (final IllegalArgumentException e) {
+                // Expected for most journals
+            }
+        }
+    }
+
+    /**
+     * Undoing every move and then redoing every move must step back and forth through the same positions
+     */
+    @Test
+    public void testUndoRedo() {
+        final Random random = new Random(10);
+        for (int gameIndex = 0; gameIndex < 20; gameIndex++) {
+            final Game game = new Game();
+            game.newGame(random.nextLong() & Long.MAX_VALUE);
+            final List<Long> hashes = GameTest.playRandomMoves(game, 200, random);
+            final int timelineLength = hashes.size() - 1;
+            for (int position = timelineLength - 1; position >= 0; position--) {
+                game.undo();
+                assertEquals(position, game.getTimelinePosition());
+                assertEquals(hashes.get(position).longValue(), game.getHash());
+            }
+            assertFalse(game.canUndo());
+            for (int position = 1; position <= timelineLength; position++) {
+                game.redo();
+                assertEquals(position, game.getTimelinePosition());
+                assertEquals(hashes.get(position).longValue(), game.getHash());
+            }
+            assertFalse(game.canRedo());
+            assertEquals(timelineLength, game.getTimelineLength());
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.github.triplesolitaire.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Round trip and corruption tests of the {@link SavedGame} encoding, over random games of random deals
+ */
+public class SavedGameTest {
+    /**
+     * Game which keeps the journal of every move and jump made, as the app does
+     */
+    static class JournalingGame extends Game {
+        /**
+         * Every move and jump made, encoded as journal records
+         */
+        final List<byte[]> journal = new ArrayList<>();
+
+        /**
+         * Journals the move before making it, as making it may trigger further (auto play) moves
+         *
+         * @see Game#move(Move)
+         */
+        @Override
+        public void move(final Move move) {
+            journal.add(SavedGame.moveToByteArray(move));
+            super.move(move);
+        }
+
+        /**
+         * Journals each move of the auto play chain
+         *
+         * @see Game#onAutoPlayChain(List)
+         */
+        @Override
+        protected void onAutoPlayChain(final List<Move> chain) {
+            for (final Move move : chain)
+                journal.add(SavedGame.moveToByteArray(move));
+        }
+
+        /**
+         * Journals the jump
+         *
+         * @see Game#onTimelineJump(int)
+         */
+        @Override
+        protected void onTimelineJump(final int position) {
+            journal.add(SavedGame.jumpToByteArray(position));
+        }
+    }
+
+    /**
+     * Number of random games played by each test
+     */
+    private static final int GAME_COUNT = 100;
+    /**
+     * Number of actions (moves, undos, redos and jumps) made in each random game
+     */
+    private static final int ACTION_COUNT = 200;
+
+    /**
+     * Plays a random game of a random deal: mostly random legal moves, with undos, redos and jumps along the timeline
+     *
+     * @param random Source of the deal and the actions
+     * @return The game, with its journal
+     */
+    static JournalingGame playRandomGame(final Random random) {
+        final JournalingGame game = new JournalingGame();
+        game.setAutoFlip(random.nextBoolean());
+        game.setAutoPlayMode(Game.AutoPlayMode.values()[random.nextInt(Game.AutoPlayMode.values().length)]);
+        game.newGame(random.nextLong() & Long.MAX_VALUE);
+        for (int action = 0; action < SavedGameTest.ACTION_COUNT; action++) {
+            final int choice = random.nextInt(20);
+            if (choice == 0)
+                game.jumpTo(random.nextInt(game.getTimelineLength() + 1));
+            else if (choice <= 2)
+                game.undo();
+            else if (choice == 3)
+                game.redo();
+            else {
+                final List<Move> legalMoves = game.getLegalMoves();
+                if (!legalMoves.isEmpty())
+                    game.move(legalMoves.get(random.nextInt(legalMoves.size())));
+            }
+        }
+        return game;
+    }
+
+    /**
+     * Asserts that decoding the given bytes as a saved game either succeeds with only valid cards or fails with an
+     * IllegalArgumentException, rather than any other exception
+     *
+     * @param bytes Bytes to decode
+     */
+    private static void assertDecodesOrRejects(final byte[] bytes) {
+        final SavedGame savedGame;
+        try {
+            savedGame = SavedGame.fromByteArray(bytes);
+        } catch (final IllegalArgumentException e) {
+            return;
+        }
+        for (final Move move : savedGame.getMoves())
+            for (final int card : move.getCascade())
+                assertTrue("Decoded invalid card " + card, Cards.isValid(card));
+    }
+
+    /**
+     * Asserts that decoding the given bytes as a journal record either succeeds with only valid cards or fails with
+     * an IllegalArgumentException, rather than any other exception
+     *
+     * @param record Bytes to decode
+     */
+    private static void assertRecordDecodesOrRejects(final byte[] record) {
+        try {
+            if (SavedGame.isJump(record)) {
+                SavedGame.jumpFromByteArray(record);
+                return;
+            }
+            for (final int card : SavedGame.moveFromByteArray(record).getCascade())
+                assertTrue("Decoded invalid card " + card, Cards.isValid(card));
+        } catch (final IllegalArgumentException e) {
+            // Expected for corrupt records
+        }
+    }
+
+    /**
+     * Corrupting any single bit of a saved game or a journal record must be either harmless or rejected with an
+     * IllegalArgumentException
+     */
+    @Test
+    public void testBitFlips() {
+        final Random random = new Random(3);
+        for (int gameIndex = 0; gameIndex < SavedGameTest.GAME_COUNT / 4; gameIndex++) {
+            final JournalingGame game = SavedGameTest.playRandomGame(random);
+            final byte[] bytes = new SavedGame(game.getDeal(), game.getHash(), game.getMoveHistory()).toByteArray();
+            for (int bit = 0; bit < 8 * bytes.length; bit++) {
+                final byte[] corrupt = bytes.clone();
+                corrupt[bit / 8] ^= 1 << bit % 8;
+                SavedGameTest.assertDecodesOrRejects(corrupt);
+            }
+            for (final byte[] record : game.journal)
+                for (int bit = 0; bit < 8 * record.length; bit++) {
+                    final byte[] corrupt = record.clone();
+                    corrupt[bit / 8] ^= 1 << bit % 8;
+                    SavedGameTest.assertRecordDecodesOrRejects(corrupt);
+                }
+        }
+    }
+
+    /**
+     * Every card byte outside of a valid card must be rejected
+     */
+    @Test
+    public void testInvalidCards() {
+        final Move move = new Move(Move.Type.PLAYER_MOVE, 2, 1, Cards.create(0, Cards.HEARTS, 7));
+        final byte[] record = SavedGame.moveToByteArray(move);
+        for (int card = 0; card < 256; card++) {
+            record[record.length - 1] = (byte) card;
+            try {
+                assertEquals(card, SavedGame.moveFromByteArray(record).getCard());
+                assertTrue("Accepted invalid card " + card, Cards.isValid(card));
+            } catch (final IllegalArgumentException e) {
+                assertTrue("Rejected valid card " + card, !Cards.isValid(card));
+            }
+        }
+    }
+
+    /**
+     * Every journal record (moves, including undos, and jumps) must decode to what was encoded, and replaying the
+     * journal must rebuild the same position and timeline
+     */
+    @Test
+    public void testJournalRoundTrip() {
+        final Random random = new Random(2);
+        for (int gameIndex = 0; gameIndex < SavedGameTest.GAME_COUNT; gameIndex++) {
+            final JournalingGame game = SavedGameTest.playRandomGame(random);
+            for (final byte[] record : game.journal) {
+                if (SavedGame.isJump(record))
+                    assertArrayEquals(record, SavedGame.jumpToByteArray(SavedGame.jumpFromByteArray(record)));
+                else
+                    assertArrayEquals(record, SavedGame.moveToByteArray(SavedGame.moveFromByteArray(record)));
+            }
+            final Game restored = new Game();
+            restored.restoreJournal(game.getDeal(), game.journal);
+            assertEquals(game.getHash(), restored.getHash());
+            assertEquals(game.getTimelinePosition(), restored.getTimelinePosition());
+            assertEquals(game.getTimelineLength(), restored.getTimelineLength());
+        }
+    }
+
+    /**
+     * Saved games of random deals and moves must decode to the same deal, hash and moves, and restoring them must
+     * rebuild the same position
+     */
+    @Test
+    public void testSavedGameRoundTrip() {
+        final Random random = new Random(1);
+        for (int gameIndex = 0; gameIndex < SavedGameTest.GAME_COUNT; gameIndex++) {
+            final Game game = SavedGameTest.playRandomGame(random);
+            final List<Move> moves = game.getMoveHistory();
+            final SavedGame decoded = SavedGame.fromByteArray(new SavedGame(game.getDeal(), game.getHash(), moves)
+                    .toByteArray());
+            assertEquals(game.getDeal(), decoded.getDeal());
+            assertEquals(game.getHash(), decoded.getHash());
+            assertEquals(moves.toString(), decoded.getMoves().toString());
+            final Game restored = new Game();
+            restored.restoreGame(decoded.getDeal(), decoded.getMoves());
+            assertEquals(game.getHash(), restored.getHash());
+        }
+    }
+
+    /**
+     * Every truncation of a saved game or a journal record must be rejected with an IllegalArgumentException
+     */
+    @Test
+    public void testTruncation() {
+        final Random random = new Random(4);
+        for (int gameIndex = 0; gameIndex < SavedGameTest.GAME_COUNT / 4; gameIndex++) {
+            final JournalingGame game = SavedGameTest.playRandomGame(random);
+            final byte[] bytes = new SavedGame(game.getDeal(), game.getHash(), game.getMoveHistory()).toByteArray();
+            for (int length = 0; length < bytes.length; length++)
+                try {
+                    SavedGame.fromByteArray(Arrays.copyOf(bytes, length));
+                    fail("Accepted a saved game truncated to " + length + " of " + bytes.length + " bytes");
+                } catch (final IllegalArgumentException e) {
+                    // Expected
+                }
+            for (final byte[] record : game.journal)
+                for (int length = 0; length < record.length; length++)
+                    try {
+                        final byte[] truncated = Arrays.copyOf(record, length);
+                        if (SavedGame.isJump(truncated))
+                            SavedGame.jumpFromByteArray(truncated);
+                        else
+                            SavedGame.moveFromByteArray(truncated);
+                        fail("Accepted a journal record truncated to " + length + " of " + record.length + " bytes");
+                    } catch (final IllegalArgumentException e) {
+                        // Expected
+                    }
+        }
+    }
+}
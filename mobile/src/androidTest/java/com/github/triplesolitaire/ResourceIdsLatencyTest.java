@@ -0,0 +1,95 @@
+package com.github.triplesolitaire;
+
+import android.content.res.Resources;
+import android.support.test.filters.LargeTest;
+import android.test.AndroidTestCase;
+import android.util.Log;
+
+/**
+ * Latency harness for looking up the view IDs of every pile (12 foundations, 13 lanes and 3 waste cards), as done on
+ * every update of the whole board: by name with Resources.getIdentifier, as before {@link ResourceIds}, against the
+ * {@link ResourceIds} tables. Timings depend on the device, so they are logged (under the ResourceIdsLatency tag)
+ * rather than asserted
+ */
+@LargeTest
+public class ResourceIdsLatencyTest extends AndroidTestCase {
+    /**
+     * Used for logging the timings
+     */
+    private static final String TAG = "ResourceIdsLatency";
+    /**
+     * Number of updates timed, the logged latency being the average
+     */
+    private static final int UPDATES = 1000;
+
+    /**
+     * Looks up the view ID of every pile by name, as each update did before {@link ResourceIds}
+     *
+     * @param resources   Resources of the app
+     * @param packageName Package name of the app
+     * @return The sum of the view IDs, so that the lookups cannot be optimized away
+     */
+    private static int lookUpByName(final Resources resources, final String packageName) {
+        int sum = 0;
+        for (int foundationIndex = 1; foundationIndex <= 12; foundationIndex++)
+            sum += resources.getIdentifier("foundation" + foundationIndex, "id", packageName);
+        for (int laneIndex = 1; laneIndex <= 13; laneIndex++)
+            sum += resources.getIdentifier("lane" + laneIndex, "id", packageName);
+        for (int wasteIndex = 1; wasteIndex <= 3; wasteIndex++)
+            sum += resources.getIdentifier("waste" + wasteIndex, "id", packageName);
+        return sum;
+    }
+
+    /**
+     * Looks up the view ID of every pile from the {@link ResourceIds} tables
+     *
+     * @return The sum of the view IDs, so that the lookups cannot be optimized away
+     */
+    private static int lookUpByTable() {
+        int sum = 0;
+        for (int foundationIndex = 1; foundationIndex <= 12; foundationIndex++)
+            sum += ResourceIds.getFoundationId(foundationIndex);
+        for (int laneIndex = 1; laneIndex <= 13; laneIndex++)
+            sum += ResourceIds.getLaneId(laneIndex);
+        for (int wasteIndex = 1; wasteIndex <= 3; wasteIndex++)
+            sum += ResourceIds.getWasteId(wasteIndex);
+        return sum;
+    }
+
+    /**
+     * The tables must hold the same view IDs as looking them up by name
+     */
+    public void testIdsMatch() {
+        final Resources resources = getContext().getResources();
+        final String packageName = getContext().getPackageName();
+        for (int foundationIndex = 1; foundationIndex <= 12; foundationIndex++)
+            assertEquals(resources.getIdentifier("foundation" + foundationIndex, "id", packageName),
+                    ResourceIds.getFoundationId(foundationIndex));
+        for (int laneIndex = 1; laneIndex <= 13; laneIndex++)
+            assertEquals(resources.getIdentifier("lane" + laneIndex, "id", packageName),
+                    ResourceIds.getLaneId(laneIndex));
+        for (int wasteIndex = 1; wasteIndex <= 3; wasteIndex++)
+            assertEquals(resources.getIdentifier("waste" + wasteIndex, "id", packageName),
+                    ResourceIds.getWasteId(wasteIndex));
+    }
+
+    /**
+     * Times the view ID lookups of an update both ways, checking that every update finds the same view IDs
+     */
+    public void testLookupLatency() {
+        final Resources resources = getContext().getResources();
+        final String packageName = getContext().getPackageName();
+        final int expectedSum = ResourceIdsLatencyTest.lookUpByTable();
+        assertEquals(expectedSum, ResourceIdsLatencyTest.lookUpByName(resources, packageName));
+        long start = System.nanoTime();
+        for (int update = 0; update < ResourceIdsLatencyTest.UPDATES; update++)
+            assertEquals(expectedSum, ResourceIdsLatencyTest.lookUpByName(resources, packageName));
+        final long byNameNanos = (System.nanoTime() - start) / ResourceIdsLatencyTest.UPDATES;
+        start = System.nanoTime();
+        for (int update = 0; update < ResourceIdsLatencyTest.UPDATES; update++)
+            assertEquals(expectedSum, ResourceIdsLatencyTest.lookUpByTable());
+        final long byTableNanos = (System.nanoTime() - start) / ResourceIdsLatencyTest.UPDATES;
+        Log.i(ResourceIdsLatencyTest.TAG, "View IDs of every pile, per update: Resources.getIdentifier "
+                + byNameNanos + "ns, table lookup " + byTableNanos + "ns");
+    }
+}
@@ -0,0 +1,231 @@
+package com.github.triplesolitaire.provider;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.test.filters.LargeTest;
+import android.test.ProviderTestCase2;
+import android.util.Log;
+
+import java.util.Random;
+
+/**
+ * Latency harness for the games table: times filling it with 10k and 100k games through bulkInsert, then the insert
+ * conflict path, the synced=0 update and the summary query, each with and without the synced index. Timings depend
+ * on the device, so they are logged (under the GameProviderLatency tag) rather than asserted
+ */
+@LargeTest
+public class GameProviderLatencyTest extends ProviderTestCase2<GameProvider> {
+    /**
+     * Number of times each operation is timed, the logged latency being the average
+     */
+    private static final int REPETITIONS = 20;
+    /**
+     * Start time of the first game, with each following game started a minute later
+     */
+    private static final long START_TIME = 1400000000000L;
+    /**
+     * Summary columns loaded by the stats dialog
+     */
+    private static final String[] SUMMARY_PROJECTION = {GameContract.GamesSummary.COLUMN_NAME_GAMES_PLAYED,
+            GameContract.GamesSummary.COLUMN_NAME_GAMES_WON, GameContract.GamesSummary.COLUMN_NAME_AVERAGE_DURATION,
+            GameContract.GamesSummary.COLUMN_NAME_AVERAGE_MOVES};
+    /**
+     * Name of the index on synced, as created by the DatabaseHelper
+     */
+    private static final String SYNCED_INDEX = GameContract.Games.TABLE_NAME + "_"
+            + GameContract.Games.COLUMN_NAME_SYNCED;
+    /**
+     * Used for logging the timings
+     */
+    private static final String TAG = "GameProviderLatency";
+    /**
+     * Number of games left unsynced (the most recent ones), as between two cloud saves
+     */
+    private static final int UNSYNCED_COUNT = 10;
+
+    /**
+     * Database of the provider under test, opened through its own DatabaseHelper, for changing its indexes and
+     * resetting games outside of the timings
+     */
+    private SQLiteDatabase db;
+
+    /**
+     * Creates a new GameProviderLatencyTest
+     */
+    public GameProviderLatencyTest() {
+        super(GameProvider.class, GameContract.AUTHORITY);
+    }
+
+    /**
+     * Gets the start time of the game at the given index
+     *
+     * @param gameIndex Index of the game, in order of start time
+     * @return The start time of the game
+     */
+    private static long getStartTime(final int gameIndex) {
+        return GameProviderLatencyTest.START_TIME + gameIndex * 60000L;
+    }
+
+    /**
+     * Logs the latency of filling the games table with the given number of games, then of each operation against
+     * them, without and with the synced index
+     *
+     * @param gameCount Number of games to time the operations against
+     */
+    private void measure(final int gameCount) {
+        final Random random = new Random(gameCount);
+        for (final boolean indexed : new boolean[]{false, true}) {
+            db.delete(GameContract.Games.TABLE_NAME, null, null);
+            if (indexed)
+                db.execSQL("CREATE INDEX IF NOT EXISTS " + GameProviderLatencyTest.SYNCED_INDEX + " ON "
+                        + GameContract.Games.TABLE_NAME + " (" + GameContract.Games.COLUMN_NAME_SYNCED + ");");
+            else
+                db.execSQL("DROP INDEX IF EXISTS " + GameProviderLatencyTest.SYNCED_INDEX);
+            final long bulkInsertMicros = timeBulkInsert(gameCount);
+            final long insertMicros = timeInsertConflict(gameCount, random);
+            final long updateMicros = timeSyncedUpdate(gameCount);
+            final long summaryMicros = timeSummaryQuery(gameCount);
+            Log.i(GameProviderLatencyTest.TAG, gameCount + " games, " + (indexed ? "with" : "without")
+                    + " synced index: bulk insert " + bulkInsertMicros + "us (" + bulkInsertMicros * 1000 / gameCount
+                    + "ns per game), insert conflict " + insertMicros + "us, synced=0 update " + updateMicros
+                    + "us, summary query " + summaryMicros + "us");
+        }
+    }
+
+    /**
+     * Opens the database of the provider under test, through the provider's own DatabaseHelper so that the indexes are
+     * changed on the connection the provider writes through
+     *
+     * @see android.test.ProviderTestCase2#setUp()
+     */
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        db = getProvider().getDatabaseHelper().getWritableDatabase();
+    }
+
+    /**
+     * Closes the database of the provider under test
+     *
+     * @see android.test.ProviderTestCase2#tearDown()
+     */
+    @Override
+    protected void tearDown() throws Exception {
+        getProvider().getDatabaseHelper().close();
+        super.tearDown();
+    }
+
+    /**
+     * Times the latency of each operation against 10k games
+     */
+    public void testLatency10k() {
+        measure(10000);
+    }
+
+    /**
+     * Times the latency of each operation against 100k games
+     */
+    public void testLatency100k() {
+        measure(100000);
+    }
+
+    /**
+     * Times filling the empty games table with the given number of games, a quarter of them lost and all but the most
+     * recent {@link #UNSYNCED_COUNT} synced, through a single bulkInsert
+     *
+     * @param gameCount Number of games to insert
+     * @return The latency of the whole bulkInsert, in microseconds
+     */
+    private long timeBulkInsert(final int gameCount) {
+        final Random random = new Random(gameCount);
+        final ContentValues[] games = new ContentValues[gameCount];
+        for (int gameIndex = 0; gameIndex < gameCount; gameIndex++) {
+            final boolean won = random.nextInt(4) != 0;
+            games[gameIndex] = new ContentValues();
+            games[gameIndex].put(GameContract.Games.COLUMN_NAME_START_TIME, getStartTime(gameIndex));
+            games[gameIndex].put(GameContract.Games.COLUMN_NAME_DURATION, won ? 120 + random.nextInt(600) : 0);
+            games[gameIndex].put(GameContract.Games.COLUMN_NAME_MOVES, won ? 150 + random.nextInt(150) : 0);
+            games[gameIndex].put(GameContract.Games.COLUMN_NAME_SYNCED,
+                    gameIndex < gameCount - GameProviderLatencyTest.UNSYNCED_COUNT);
+            games[gameIndex].put(GameContract.Games.COLUMN_NAME_DEAL, random.nextLong() & Long.MAX_VALUE);
+        }
+        final long start = System.nanoTime();
+        final int count = getMockContentResolver().bulkInsert(GameContract.Games.CONTENT_URI, games);
+        final long totalNanos = System.nanoTime() - start;
+        assertEquals(gameCount, count);
+        return totalNanos / 1000;
+    }
+
+    /**
+     * Times inserting games started at the same time as existing ones, which takes the insert conflict path of
+     * updating the existing game instead. The games stay synced, so as not to change the synced=0 update
+     *
+     * @param gameCount Number of games in the table
+     * @param random Source of the games to conflict with
+     * @return The average latency, in microseconds
+     */
+    private long timeInsertConflict(final int gameCount, final Random random) {
+        long totalNanos = 0;
+        for (int repetition = 0; repetition < GameProviderLatencyTest.REPETITIONS; repetition++) {
+            final ContentValues values = new ContentValues();
+            values.put(GameContract.Games.COLUMN_NAME_START_TIME, getStartTime(random.nextInt(gameCount)));
+            values.put(GameContract.Games.COLUMN_NAME_DURATION, 0);
+            values.put(GameContract.Games.COLUMN_NAME_MOVES, 0);
+            values.put(GameContract.Games.COLUMN_NAME_SYNCED, true);
+            final long start = System.nanoTime();
+            assertNotNull(getMockContentResolver().insert(GameContract.Games.CONTENT_URI, values));
+            totalNanos += System.nanoTime() - start;
+        }
+        return totalNanos / GameProviderLatencyTest.REPETITIONS / 1000;
+    }
+
+    /**
+     * Times loading the summary shown by the stats dialog
+     *
+     * @param gameCount Number of games in the table
+     * @return The average latency, in microseconds
+     */
+    private long timeSummaryQuery(final int gameCount) {
+        long totalNanos = 0;
+        for (int repetition = 0; repetition < GameProviderLatencyTest.REPETITIONS; repetition++) {
+            final long start = System.nanoTime();
+            final Cursor summary = getMockContentResolver().query(GameContract.GamesSummary.CONTENT_URI,
+                    GameProviderLatencyTest.SUMMARY_PROJECTION, null, null, null);
+            assertNotNull(summary);
+            try {
+                assertTrue(summary.moveToFirst());
+                totalNanos += System.nanoTime() - start;
+                assertEquals(gameCount, summary.getInt(summary.getColumnIndex(
+                        GameContract.GamesSummary.COLUMN_NAME_GAMES_PLAYED)));
+            } finally {
+                summary.close();
+            }
+        }
+        return totalNanos / GameProviderLatencyTest.REPETITIONS / 1000;
+    }
+
+    /**
+     * Times marking the unsynced games as synced, as done after each cloud save. The most recent games are marked
+     * unsynced again (untimed) before each repetition
+     *
+     * @param gameCount Number of games in the table
+     * @return The average latency, in microseconds
+     */
+    private long timeSyncedUpdate(final int gameCount) {
+        final ContentValues synced = new ContentValues();
+        synced.put(GameContract.Games.COLUMN_NAME_SYNCED, true);
+        long totalNanos = 0;
+        for (int repetition = 0; repetition < GameProviderLatencyTest.REPETITIONS; repetition++) {
+            db.execSQL("UPDATE " + GameContract.Games.TABLE_NAME + " SET " + GameContract.Games.COLUMN_NAME_SYNCED
+                    + "=0 WHERE " + GameContract.Games.COLUMN_NAME_START_TIME + ">=" + getStartTime(gameCount
+                    - GameProviderLatencyTest.UNSYNCED_COUNT));
+            final long start = System.nanoTime();
+            final int count = getMockContentResolver().update(GameContract.Games.CONTENT_URI, synced,
+                    GameContract.Games.COLUMN_NAME_SYNCED + "=0", null);
+            totalNanos += System.nanoTime() - start;
+            assertEquals(GameProviderLatencyTest.UNSYNCED_COUNT, count);
+        }
+        return totalNanos / GameProviderLatencyTest.REPETITIONS / 1000;
+    }
+}
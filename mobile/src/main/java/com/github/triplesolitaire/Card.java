@@ -9,6 +9,15 @@ import android.widget.ImageView;
  */
 @SuppressLint("ViewConstructor")
 public class Card extends ImageView {
+    /**
+     * Height of a card, read once rather than on every measure
+     */
+    private final int cardHeight;
+    /**
+     * Width of a card, read once rather than on every measure
+     */
+    private final int cardWidth;
+
     /**
      * Constructs a new Card with the given background image
      *
@@ -17,9 +26,20 @@ public class Card extends ImageView {
      */
     public Card(final Context context, final int resid) {
         super(context);
+        cardHeight = getResources().getDimensionPixelSize(R.dimen.card_height_dim);
+        cardWidth = getResources().getDimensionPixelSize(R.dimen.card_width_dim);
         setBackgroundResource(resid);
     }
 
+    /**
+     * Shows the face of the given card, drawn from the shared card atlas
+     *
+     * @param card Card to show
+     */
+    public void setCard(final int card) {
+        CardAtlas.setBackground(this, card);
+    }
+
     /**
      * Sets the width and height to the appropriate values for a single card
      *
@@ -27,7 +47,6 @@ public class Card extends ImageView {
      */
     @Override
     protected void onMeasure(final int widthMeasureSpec, final int heightMeasureSpec) {
-        setMeasuredDimension(getResources().getDimensionPixelSize(R.dimen.card_width_dim), getResources()
-                .getDimensionPixelSize(R.dimen.card_height_dim));
+        setMeasuredDimension(cardWidth, cardHeight);
     }
 }
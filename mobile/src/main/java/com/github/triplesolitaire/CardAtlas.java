@@ -0,0 +1,180 @@
+package com.github.triplesolitaire;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+
+import com.github.triplesolitaire.engine.Cards;
+
+/**
+ * Process-wide cache of the card faces, all drawn from a single atlas image generated at build time (see the
+ * generateCardAtlas task). The atlas holds a row per suit and a column per rank, with a 1 pixel transparent border
+ * around each card, and is decoded once at its original size: every card view shares it, scaling its card to the
+ * view's bounds when drawing
+ */
+public final class CardAtlas {
+    /**
+     * Drawable showing one card of the atlas, scaled to its bounds
+     */
+    private static class CardDrawable extends Drawable {
+        /**
+         * Intrinsic height, matching a separate card drawable in the default density bucket
+         */
+        private final int intrinsicHeight;
+        /**
+         * Intrinsic width, matching a separate card drawable in the default density bucket
+         */
+        private final int intrinsicWidth;
+        /**
+         * Paint used to draw the card, filtering the scaled atlas
+         */
+        private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        /**
+         * Location of the card in the atlas
+         */
+        private final Rect source;
+
+        /**
+         * Creates a new drawable showing the card at the given location of the atlas
+         *
+         * @param source  Location of the card in the atlas
+         * @param density Logical density of the display
+         */
+        CardDrawable(final Rect source, final float density) {
+            this.source = source;
+            intrinsicHeight = Math.round(source.height() * density);
+            intrinsicWidth = Math.round(source.width() * density);
+        }
+
+        /**
+         * Draws the card from the atlas, scaled to the bounds of this drawable
+         *
+         * @see android.graphics.drawable.Drawable#draw(android.graphics.Canvas)
+         */
+        @Override
+        public void draw(final Canvas canvas) {
+            canvas.drawBitmap(CardAtlas.atlas, source, getBounds(), paint);
+        }
+
+        /**
+         * Getter for the intrinsic height
+         *
+         * @see android.graphics.drawable.Drawable#getIntrinsicHeight()
+         */
+        @Override
+        public int getIntrinsicHeight() {
+            return intrinsicHeight;
+        }
+
+        /**
+         * Getter for the intrinsic width
+         *
+         * @see android.graphics.drawable.Drawable#getIntrinsicWidth()
+         */
+        @Override
+        public int getIntrinsicWidth() {
+            return intrinsicWidth;
+        }
+
+        /**
+         * Cards have transparent rounded corners
+         *
+         * @see android.graphics.drawable.Drawable#getOpacity()
+         */
+        @Override
+        public int getOpacity() {
+            return PixelFormat.TRANSLUCENT;
+        }
+
+        /**
+         * Sets the alpha of this drawable only, leaving other drawables of the same card unchanged
+         *
+         * @see android.graphics.drawable.Drawable#setAlpha(int)
+         */
+        @Override
+        public void setAlpha(final int alpha) {
+            paint.setAlpha(alpha);
+            invalidateSelf();
+        }
+
+        /**
+         * Sets the color filter of this drawable only
+         *
+         * @see android.graphics.drawable.Drawable#setColorFilter(android.graphics.ColorFilter)
+         */
+        @Override
+        public void setColorFilter(final ColorFilter colorFilter) {
+            paint.setColorFilter(colorFilter);
+            invalidateSelf();
+        }
+    }
+
+    /**
+     * Location of each card in the atlas, indexed by face (see {@link Cards#getFace(int)})
+     */
+    private static final Rect[] SOURCES = new Rect[Cards.FACE_COUNT];
+    /**
+     * Atlas of every card face, decoded on first use
+     */
+    private static Bitmap atlas;
+
+    /**
+     * Gets a drawable showing the face of the given card, decoding the atlas if this is its first use
+     *
+     * @param context Context used to load the atlas
+     * @param card    Card to show
+     * @return A new drawable, sharing the atlas with every other card drawable
+     */
+    public static Drawable getDrawable(final Context context, final int card) {
+        final Resources resources = context.getResources();
+        CardAtlas.load(resources);
+        return new CardDrawable(CardAtlas.SOURCES[Cards.getFace(card)], resources.getDisplayMetrics().density);
+    }
+
+    /**
+     * Decodes the atlas and locates each card in it, if not already done
+     *
+     * @param resources Resources used to decode the atlas
+     */
+    private static synchronized void load(final Resources resources) {
+        if (CardAtlas.atlas != null)
+            return;
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inScaled = false;
+        CardAtlas.atlas = BitmapFactory.decodeResource(resources, R.drawable.card_atlas, options);
+        final int cellWidth = CardAtlas.atlas.getWidth() / Cards.KING;
+        final int cellHeight = CardAtlas.atlas.getHeight() / (Cards.SPADES + 1);
+        for (int suit = Cards.CLUBS; suit <= Cards.SPADES; suit++)
+            for (int rank = Cards.ACE; rank <= Cards.KING; rank++) {
+                final int left = (rank - 1) * cellWidth;
+                final int top = suit * cellHeight;
+                CardAtlas.SOURCES[Cards.getFace(Cards.create(0, suit, rank))] = new Rect(left + 1, top + 1,
+                        left + cellWidth - 1, top + cellHeight - 1);
+            }
+    }
+
+    /**
+     * Sets the background of the given view to the face of the given card
+     *
+     * @param view View to set the background of
+     * @param card Card to show
+     */
+    @SuppressWarnings("deprecation")
+    public static void setBackground(final View view, final int card) {
+        view.setBackgroundDrawable(CardAtlas.getDrawable(view.getContext(), card));
+    }
+
+    /**
+     * Prevents instantiation, as this class only holds the shared atlas
+     */
+    private CardAtlas() {
+    }
+}
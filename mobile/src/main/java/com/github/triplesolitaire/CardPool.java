@@ -0,0 +1,78 @@
+package com.github.triplesolitaire;
+
+import android.content.Context;
+import android.view.View;
+
+import com.github.triplesolitaire.engine.Cards;
+
+import java.util.ArrayList;
+
+/**
+ * Pool of Card views shared by every Lane and the animation layer, so that cards removed from one place are rebound
+ * (changing only their background) and reused elsewhere rather than creating a new view for every card shown
+ */
+public class CardPool {
+    /**
+     * Maximum number of idle cards kept, enough to hold every card of a game
+     */
+    private static final int MAX_SIZE = Cards.DECK_SIZE;
+    /**
+     * Context used to create new cards
+     */
+    private final Context context;
+    /**
+     * Idle cards, ready to be reused
+     */
+    private final ArrayList<Card> idleCards = new ArrayList<>();
+
+    /**
+     * Creates a new, empty CardPool
+     *
+     * @param context Context used to create new cards
+     */
+    public CardPool(final Context context) {
+        this.context = context;
+    }
+
+    /**
+     * Gets a card showing the given image, reusing an idle card if there is one
+     *
+     * @param resid Image to set as the background
+     * @return A card, not attached to any parent, with no ID or listeners
+     */
+    public Card obtain(final int resid) {
+        if (idleCards.isEmpty())
+            return new Card(context, resid);
+        final Card card = idleCards.remove(idleCards.size() - 1);
+        card.setBackgroundResource(resid);
+        return card;
+    }
+
+    /**
+     * Gets a card showing the face of the given card, reusing an idle card if there is one
+     *
+     * @param card Card to show
+     * @return A card, not attached to any parent, with no ID or listeners
+     */
+    public Card obtainCard(final int card) {
+        final Card cardView = idleCards.isEmpty() ? new Card(context, 0) : idleCards.remove(idleCards.size() - 1);
+        cardView.setCard(card);
+        return cardView;
+    }
+
+    /**
+     * Returns the given card to the pool, clearing its ID and listeners. The card must be removed from its parent
+     * before it is next obtained
+     *
+     * @param card Card no longer in use
+     */
+    public void recycle(final Card card) {
+        card.setId(View.NO_ID);
+        card.setOnClickListener(null);
+        card.setClickable(false);
+        card.setOnDragListener(null);
+        card.setOnTouchListener(null);
+        if (idleCards.size() < CardPool.MAX_SIZE)
+            idleCards.add(card);
+    }
+}
@@ -16,6 +16,7 @@ import android.os.Bundle;
 import android.os.Handler;
 import android.preference.PreferenceManager;
 import android.util.Log;
+import android.view.Choreographer;
 import android.view.DragEvent;
 import android.view.Gravity;
 import android.view.Menu;
@@ -27,11 +28,16 @@ import android.widget.FrameLayout;
 import android.widget.ImageView;
 import android.widget.RelativeLayout;
 import android.widget.TextView;
+import android.widget.Toast;
+
+import com.github.triplesolitaire.engine.Cards;
+import com.github.triplesolitaire.engine.GameListener;
+import com.github.triplesolitaire.engine.Move;
 
 /**
  * Main class which controls the UI of the Triple Solitaire game
  */
-public class GameActivity extends Activity {
+public class GameActivity extends Activity implements GameListener {
     /**
      * Handles Card flip clicks
      */
@@ -88,14 +94,28 @@ public class GameActivity extends Activity {
         public boolean onDrag(final View v, final DragEvent event) {
             final boolean isMyFoundation = foundationIndex == (Integer) event.getLocalState();
             if (event.getAction() == DragEvent.ACTION_DRAG_STARTED) {
-                final String foundationCard = gameState.getFoundationCard(foundationIndex);
                 if (isMyFoundation) {
-                    if (BuildConfig.DEBUG)
-                        Log.d(GameActivity.TAG, "Drag " + foundationIndex + ": Started of " + foundationCard);
+                    if (BuildConfig.DEBUG) {
+                        final int foundationCard = gameState.getFoundationCard(foundationIndex);
+                        Log.d(GameActivity.TAG, "Drag " + foundationIndex + ": Started of "
+                                + Cards.getName(foundationCard));
+                    }
                     return false;
                 }
-                final String card = event.getClipDescription().getLabel().toString();
-                return gameState.acceptFoundationDrop(foundationIndex, card);
+                final String cardData = event.getClipDescription().getLabel().toString();
+                if (cardData.startsWith("MULTI"))
+                    // Foundations don't accept multiple cards
+                    return false;
+                final int card = Integer.parseInt(cardData);
+                final boolean acceptDrop = gameState.acceptFoundationDrop(foundationIndex, card);
+                if (acceptDrop && BuildConfig.DEBUG) {
+                    final int foundationCard = gameState.getFoundationCard(foundationIndex);
+                    final String foundationDisplayCard = foundationCard == Cards.NONE ? "empty foundation"
+                            : Cards.getName(foundationCard);
+                    Log.d(GameActivity.TAG, "Drag -> " + foundationIndex + ": Acceptable drag of "
+                            + Cards.getName(card) + " onto " + foundationDisplayCard);
+                }
+                return acceptDrop;
             } else if (event.getAction() == DragEvent.ACTION_DROP) {
                 if (Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT)
                     System.gc();
@@ -133,14 +153,24 @@ public class GameActivity extends Activity {
          */
         @Override
         public boolean onTouch(final View v, final MotionEvent event) {
-            final String foundationCard = gameState.getFoundationCard(foundationIndex);
-            if (event.getAction() != MotionEvent.ACTION_DOWN || foundationCard == null)
+            final int foundationCard = gameState.getFoundationCard(foundationIndex);
+            if (event.getAction() != MotionEvent.ACTION_DOWN || foundationCard == Cards.NONE)
                 return false;
-            final ClipData dragData = ClipData.newPlainText(foundationCard, foundationCard);
+            final String cardData = Integer.toString(foundationCard);
+            final ClipData dragData = ClipData.newPlainText(cardData, cardData);
             return v.startDrag(dragData, new View.DragShadowBuilder(v), foundationIndex, 0);
         }
     }
 
+    /**
+     * Intent extra holding the (long) deal number to play. If not present, the game in progress is resumed or, if there
+     * is none, a random deal is played
+     */
+    public static final String EXTRA_DEAL = "com.github.triplesolitaire.DEAL";
+    /**
+     * Intent extra holding the (long) id of a won game to replay, as determined by the GameProvider
+     */
+    public static final String EXTRA_REPLAY_GAME_ID = "com.github.triplesolitaire.REPLAY_GAME_ID";
     /**
      * Logging tag
      */
@@ -153,6 +183,67 @@ public class GameActivity extends Activity {
      * Handler used to post delayed calls
      */
     final Handler handler = new Handler();
+    /**
+     * Pool of card views shared by the lanes and the animation layer
+     */
+    private CardPool cardPool;
+    /**
+     * Foundations whose UI is out of date, as a bit mask where bit 0 is the first foundation
+     */
+    private int dirtyFoundations = 0;
+    /**
+     * Lanes whose UI is out of date, as a bit mask where bit 0 is lane 1
+     */
+    private int dirtyLanes = 0;
+    /**
+     * Whether the move count UI is out of date
+     */
+    private boolean dirtyMoveCount = false;
+    /**
+     * Whether the stock UI is out of date
+     */
+    private boolean dirtyStock = false;
+    /**
+     * Whether the waste UI is out of date
+     */
+    private boolean dirtyWaste = false;
+    /**
+     * Frame callback applying the pending UI changes, created on first use as Choreographer requires API 16
+     */
+    private Choreographer.FrameCallback frameCallback;
+    /**
+     * Applies the pending UI changes, for devices without Choreographer
+     */
+    private final Runnable pendingUpdatesRunnable = new Runnable() {
+        @Override
+        public void run() {
+            applyPendingUpdates();
+        }
+    };
+    /**
+     * Whether applying the pending UI changes is already scheduled
+     */
+    private boolean pendingUpdatesScheduled = false;
+    /**
+     * Replay bar controls, shown while the game is being replayed
+     */
+    private GameReplay replay;
+    /**
+     * Single view drawing every lane, used instead of the Lane views if the single view tableau preference is set;
+     * null otherwise
+     */
+    private TableauView tableau;
+
+    /**
+     * Marks the given lane as changed, as cards were added to its cascade
+     *
+     * @param laneIndex    One-based index (1 through 13)
+     * @param cascadeToAdd Cards to add to the cascade, where the first card is the bottom card of the cascade
+     */
+    @Override
+    public void addCascade(final int laneIndex, final int[] cascadeToAdd) {
+        markLane(laneIndex);
+    }
 
     /**
      * Animates the given move by creating a copy of the source view and animating it over to the final position before
@@ -160,7 +251,10 @@ public class GameActivity extends Activity {
      *
      * @param move Move to animate
      */
+    @Override
     public void animate(final Move move) {
+        // Locations are read from the views, so they must be up to date
+        applyPendingUpdates();
         final Point fromLoc;
         if (move.getFromIndex() < 0)
             fromLoc = getFoundationLoc(-1 * move.getFromIndex() - 1);
@@ -175,10 +269,10 @@ public class GameActivity extends Activity {
             toLoc = getWasteLoc();
         else
             toLoc = getCascadeLoc(move.getToIndex() - 1);
-        final Card toAnimate = new Card(getBaseContext(), getResources().getIdentifier(move.getCard(), "drawable",
-                getPackageName()));
+        final Card toAnimate = cardPool.obtainCard(move.getCard());
         final FrameLayout layout = findViewById(R.id.animateLayout);
-        layout.addView(toAnimate);
+        layout.addView(toAnimate, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT,
+                ViewGroup.LayoutParams.WRAP_CONTENT));
         layout.setX(fromLoc.x);
         layout.setY(fromLoc.y);
         layout.setVisibility(View.VISIBLE);
@@ -196,11 +290,12 @@ public class GameActivity extends Activity {
                         @Override
                         public void onAnimationEnd(final Animator animation) {
                             if (move.getToIndex() < 0)
-                                updateFoundationUI(-1 * move.getToIndex() - 1);
+                                updateFoundationUI(move.getToIndex());
                             else if (move.getToIndex() == 0)
                                 updateWasteUI();
                             else
-                                getLane(move.getToIndex() - 1).addCascade(move.getCascade());
+                                markLane(move.getToIndex());
+                            cardPool.recycle(toAnimate);
                             layout.removeAllViews();
                             layout.setVisibility(View.GONE);
                             if (move.getType() != Move.Type.UNDO)
@@ -217,6 +312,71 @@ public class GameActivity extends Activity {
         }
     }
 
+    /**
+     * Updates the given foundation UI
+     *
+     * @param foundationIndex Negative One-based index (-1 through -12) for the foundation
+     */
+    private void applyFoundationUI(final int foundationIndex) {
+        final int foundationCard = gameState.getFoundationCard(foundationIndex);
+        final ImageView foundationView = findViewById(ResourceIds.getFoundationId(-1 * foundationIndex));
+        if (foundationCard == Cards.NONE) {
+            foundationView.setBackgroundResource(R.drawable.foundation);
+            foundationView.setOnTouchListener(null);
+        } else {
+            CardAtlas.setBackground(foundationView, foundationCard);
+            foundationView.setOnTouchListener(new OnFoundationTouchListener(foundationIndex));
+        }
+    }
+
+    /**
+     * Applies every pending UI change at once, bringing each changed location up to date with the game state. However
+     * many moves changed a location since the last frame, it is only updated once
+     */
+    void applyPendingUpdates() {
+        pendingUpdatesScheduled = false;
+        if (dirtyStock) {
+            final ImageView stockView = findViewById(R.id.stock);
+            if (gameState.isStockEmpty())
+                stockView.setBackgroundResource(R.drawable.lane);
+            else
+                stockView.setBackgroundResource(R.drawable.back);
+        }
+        if (dirtyWaste)
+            for (int wasteIndex = 0; wasteIndex < 3; wasteIndex++)
+                applyWasteUI(wasteIndex);
+        for (int foundations = dirtyFoundations; foundations != 0; foundations &= foundations - 1)
+            applyFoundationUI(-1 * (Integer.numberOfTrailingZeros(foundations) + 1));
+        for (int lanes = dirtyLanes; lanes != 0; lanes &= lanes - 1)
+            if (tableau != null)
+                tableau.sync(Integer.numberOfTrailingZeros(lanes) + 1);
+            else
+                getLane(Integer.numberOfTrailingZeros(lanes)).sync();
+        if (dirtyMoveCount) {
+            final TextView moveCountView = getActionBar().getCustomView().findViewById(R.id.move_count);
+            moveCountView.setText(Integer.toString(getMoveCount()));
+        }
+        dirtyStock = false;
+        dirtyWaste = false;
+        dirtyFoundations = 0;
+        dirtyLanes = 0;
+        dirtyMoveCount = false;
+    }
+
+    /**
+     * Updates each card in the waste
+     *
+     * @param wasteIndex Index of the card (0-2)
+     */
+    private void applyWasteUI(final int wasteIndex) {
+        final int wasteCard = gameState.getWasteCard(wasteIndex);
+        final ImageView waste = findViewById(ResourceIds.getWasteId(wasteIndex + 1));
+        if (wasteCard == Cards.NONE)
+            waste.setBackgroundResource(0);
+        else
+            CardAtlas.setBackground(waste, wasteCard);
+    }
+
     /**
      * Cancel any running animation
      */
@@ -226,6 +386,28 @@ public class GameActivity extends Activity {
         layout.animate().cancel();
     }
 
+    /**
+     * Marks the given lane as changed, as cards were removed from its cascade
+     *
+     * @param laneIndex   One-based index (1 through 13)
+     * @param removeCount The number of cards to remove from the cascade
+     */
+    @Override
+    public void decrementCascadeSize(final int laneIndex, final int removeCount) {
+        markLane(laneIndex);
+    }
+
+    /**
+     * Marks the given lane as changed, as its top stack card was flipped over
+     *
+     * @param laneIndex One-based index (1 through 13)
+     * @param card      The card to show as the newly flipped over card
+     */
+    @Override
+    public void flipOverTopStack(final int laneIndex, final int card) {
+        markLane(laneIndex);
+    }
+
     /**
      * Gets the screen location for the top cascade card of the given lane
      *
@@ -233,6 +415,11 @@ public class GameActivity extends Activity {
      * @return The exact (x,y) position of the top cascade card in the lane
      */
     private Point getCascadeLoc(final int laneIndex) {
+        if (tableau != null) {
+            final Point location = tableau.getTopCardLocation(laneIndex + 1);
+            location.offset((int) tableau.getX(), (int) tableau.getY());
+            return location;
+        }
         final RelativeLayout lane = findViewById(R.id.lane);
         final Card cascadeView = getLane(laneIndex).getTopCascadeCard();
         final float x = cascadeView.getX() + cascadeView.getPaddingLeft() + getLane(laneIndex).getX()
@@ -250,8 +437,7 @@ public class GameActivity extends Activity {
      */
     private Point getFoundationLoc(final int foundationIndex) {
         final RelativeLayout foundationLayout = findViewById(R.id.foundation);
-        final ImageView foundationView = findViewById(getResources().getIdentifier(
-                "foundation" + (foundationIndex + 1), "id", getPackageName()));
+        final ImageView foundationView = findViewById(ResourceIds.getFoundationId(foundationIndex + 1));
         final float x = foundationView.getX() + foundationView.getPaddingLeft() + foundationLayout.getX()
                 + foundationLayout.getPaddingLeft();
         final float y = foundationView.getY() + foundationView.getPaddingTop() + foundationLayout.getY()
@@ -284,7 +470,7 @@ public class GameActivity extends Activity {
      * @return The Lane for the given index
      */
     public Lane getLane(final int laneIndex) {
-        return (Lane) findViewById(getResources().getIdentifier("lane" + (laneIndex + 1), "id", getPackageName()));
+        return (Lane) findViewById(ResourceIds.getLaneId(laneIndex + 1));
     }
 
     /**
@@ -309,10 +495,24 @@ public class GameActivity extends Activity {
         return new Point((int) x, (int) y);
     }
 
+    /**
+     * Marks the given lane as changed, to be brought up to date with the game state on the next frame
+     *
+     * @param laneIndex One-based index (1 through 13)
+     */
+    private void markLane(final int laneIndex) {
+        dirtyLanes |= 1 << laneIndex - 1;
+        schedulePendingUpdates();
+    }
+
     @Override
     public void onBackPressed() {
+        if (gameState.isReplaying() && !gameState.isReplayOnly()) {
+            stopReplay();
+            return;
+        }
         final boolean gameStarted = gameState.getTimeInSeconds() > 0;
-        if (!gameStarted && !gameState.gameInProgress) {
+        if (gameState.isReplayOnly() || !gameStarted && !gameState.isGameInProgress()) {
             super.onBackPressed();
             return;
         }
@@ -339,6 +539,7 @@ public class GameActivity extends Activity {
         super.onCreate(savedInstanceState);
         gameState = new GameState(this);
         setContentView(R.layout.activity_game);
+        replay = new GameReplay(this);
         // Set up the progress bar area
         final View progressBar = getLayoutInflater().inflate(R.layout.progress_bar, null);
         final ActionBar bar = getActionBar();
@@ -363,7 +564,8 @@ public class GameActivity extends Activity {
             public boolean onTouch(final View v, final MotionEvent event) {
                 if (event.getAction() != MotionEvent.ACTION_DOWN || gameState.isWasteEmpty())
                     return false;
-                final ClipData dragData = ClipData.newPlainText(gameState.getWasteCard(0), gameState.getWasteCard(0));
+                final String cardData = Integer.toString(gameState.getWasteCard(0));
+                final ClipData dragData = ClipData.newPlainText(cardData, cardData);
                 return v.startDrag(dragData, new View.DragShadowBuilder(v), 0, 0);
             }
         });
@@ -373,8 +575,8 @@ public class GameActivity extends Activity {
                 final boolean fromMe = (Integer) event.getLocalState() == 0;
                 if (event.getAction() == DragEvent.ACTION_DRAG_STARTED && fromMe) {
                     if (BuildConfig.DEBUG) {
-                        final String card = event.getClipDescription().getLabel().toString();
-                        Log.d(GameActivity.TAG, "Drag W: Started of " + card);
+                        final String cardData = event.getClipDescription().getLabel().toString();
+                        Log.d(GameActivity.TAG, "Drag W: Started of " + cardData);
                     }
                     return true;
                 } else if (event.getAction() == DragEvent.ACTION_DRAG_ENDED && !event.getResult() && fromMe) {
@@ -392,21 +594,37 @@ public class GameActivity extends Activity {
             }
         });
         for (int curFoundation = 0; curFoundation < 12; curFoundation++) {
-            final int foundationId = getResources().getIdentifier("foundation" + (curFoundation + 1), "id",
-                    getPackageName());
+            final int foundationId = ResourceIds.getFoundationId(curFoundation + 1);
             final ImageView foundationLayout = findViewById(foundationId);
             foundationLayout.setOnTouchListener(new OnFoundationTouchListener(-1 * (curFoundation + 1)));
             foundationLayout.setOnDragListener(new OnFoundationDragListener(-1 * (curFoundation + 1)));
         }
+        cardPool = new CardPool(this);
         for (int curLane = 0; curLane < 13; curLane++) {
-            final int laneId = getResources().getIdentifier("lane" + (curLane + 1), "id", getPackageName());
+            final int laneId = ResourceIds.getLaneId(curLane + 1);
             final Lane laneLayout = findViewById(laneId);
+            laneLayout.setCardPool(cardPool);
             laneLayout.setOnCardFlipListener(new OnCardFlipListener(curLane + 1));
             laneLayout.setLaneId(curLane + 1);
             laneLayout.setGameState(gameState);
         }
-        if (savedInstanceState == null)
-            gameState.newGame();
+        final SharedPreferences preferences = PreferenceManager.getDefaultSharedPreferences(this);
+        if (preferences.getBoolean(Preferences.SINGLE_VIEW_TABLEAU_PREFERENCE_KEY,
+                getResources().getBoolean(R.bool.pref_single_view_tableau_default))) {
+            findViewById(R.id.lane).setVisibility(View.GONE);
+            tableau = findViewById(R.id.tableau);
+            tableau.setGameState(gameState);
+            tableau.setVisibility(View.VISIBLE);
+        }
+        if (savedInstanceState == null) {
+            if (getIntent().hasExtra(GameActivity.EXTRA_REPLAY_GAME_ID))
+                gameState.loadReplay(getIntent().getLongExtra(GameActivity.EXTRA_REPLAY_GAME_ID, 0), 0);
+            else if (getIntent().hasExtra(GameActivity.EXTRA_DEAL)) {
+                gameState.newGame(getIntent().getLongExtra(GameActivity.EXTRA_DEAL, 0));
+                updateDealUI();
+            } else
+                gameState.resumeOrNewGame();
+        }
     }
 
     /**
@@ -431,11 +649,28 @@ public class GameActivity extends Activity {
             case R.id.undo:
                 gameState.undo();
                 return true;
+            case R.id.redo:
+                gameState.redo();
+                return true;
+            case R.id.undo_to_last_flip:
+                gameState.undoToLastFlip();
+                return true;
+            case R.id.restart_deal:
+                gameState.restartDeal();
+                return true;
+            case R.id.replay:
+                gameState.startReplay();
+                onReplayStarted();
+                return true;
+            case R.id.hint:
+                showHint(gameState.getHint());
+                return true;
             case R.id.pause:
                 new GamePauseDialogFragment().show(getFragmentManager(), "pause");
                 return true;
             case R.id.new_game:
                 gameState.newGame();
+                updateDealUI();
                 return true;
             case R.id.settings:
                 startActivity(new Intent(this, Preferences.class));
@@ -452,28 +687,55 @@ public class GameActivity extends Activity {
         }
     }
 
+    /**
+     * Stops the replay of the game in progress (or pauses the replay of a won game) and cancels any animations
+     *
+     * @see android.app.Activity#onPause()
+     */
     @Override
     protected void onPause() {
         super.onPause();
+        if (gameState.isReplayOnly())
+            replay.setPlaying(false);
+        else
+            stopReplay();
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.ICE_CREAM_SANDWICH)
             cancelAnimation();
     }
 
     /**
-     * Method called every time the options menu is invalidated/repainted. Enables/disables the undo button
+     * Method called every time the options menu is invalidated/repainted. Enables/disables the undo and redo buttons,
+     * disabling every game action while replaying
      *
      * @see android.app.Activity#onPrepareOptionsMenu(android.view.Menu)
      */
     @Override
     public boolean onPrepareOptionsMenu(final Menu menu) {
         super.onPrepareOptionsMenu(menu);
-        menu.findItem(R.id.undo).setEnabled(gameState.canUndo());
+        final boolean replaying = gameState.isReplaying();
+        final boolean canUndo = !replaying && gameState.canUndo();
+        final boolean canRedo = !replaying && gameState.canRedo();
+        menu.findItem(R.id.undo).setEnabled(canUndo);
+        menu.findItem(R.id.redo).setEnabled(canRedo);
+        menu.findItem(R.id.undo_to_last_flip).setEnabled(canUndo);
+        menu.findItem(R.id.restart_deal).setEnabled(canUndo);
+        menu.findItem(R.id.replay).setEnabled(canUndo || canRedo);
+        menu.findItem(R.id.hint).setEnabled(!replaying);
+        menu.findItem(R.id.new_game).setEnabled(!replaying);
         final boolean gameStarted = gameState.getTimeInSeconds() > 0;
-        final boolean gameInProgress = gameState.gameInProgress;
-        menu.findItem(R.id.pause).setEnabled(gameStarted || gameInProgress);
+        final boolean gameInProgress = gameState.isGameInProgress();
+        menu.findItem(R.id.pause).setEnabled(!replaying && (gameStarted || gameInProgress));
         return true;
     }
 
+    /**
+     * Shows the replay bar once the game has started replaying
+     */
+    void onReplayStarted() {
+        replay.show();
+        invalidateOptionsMenu();
+    }
+
     /**
      * Restores the game state
      *
@@ -482,9 +744,21 @@ public class GameActivity extends Activity {
     @Override
     protected void onRestoreInstanceState(final Bundle savedInstanceState) {
         gameState.onRestoreInstanceState(savedInstanceState);
+        updateDealUI();
         super.onRestoreInstanceState(savedInstanceState);
     }
 
+    /**
+     * Reloads the user's preferences, which may have changed while the activity was paused
+     *
+     * @see android.app.Activity#onResume()
+     */
+    @Override
+    protected void onResume() {
+        super.onResume();
+        gameState.loadPreferences();
+    }
+
     /**
      * Saves the game state
      *
@@ -516,78 +790,166 @@ public class GameActivity extends Activity {
             gameState.pauseGame();
     }
 
+    /**
+     * Posts the frame callback applying the pending UI changes to the Choreographer
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private void postFrameCallback() {
+        if (frameCallback == null)
+            frameCallback = new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(final long frameTimeNanos) {
+                    applyPendingUpdates();
+                }
+            };
+        Choreographer.getInstance().postFrameCallback(frameCallback);
+    }
+
+    /**
+     * Schedules applying the pending UI changes on the next frame, if not already scheduled
+     */
+    private void schedulePendingUpdates() {
+        if (pendingUpdatesScheduled)
+            return;
+        pendingUpdatesScheduled = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN)
+            postFrameCallback();
+        else
+            handler.post(pendingUpdatesRunnable);
+    }
+
+    /**
+     * Marks the given lane as changed, as its stack size was set
+     *
+     * @param laneIndex    One-based index (1 through 13)
+     * @param newStackSize New stack size
+     */
+    @Override
+    public void setStackSize(final int laneIndex, final int newStackSize) {
+        markLane(laneIndex);
+    }
+
+    /**
+     * Shows the given hint by briefly fading out the card(s) to move (or the stock to click)
+     *
+     * @param hint Move to suggest, or null if there are no legal moves
+     */
+    private void showHint(final Move hint) {
+        // The hinted card is found from the views, so they must be up to date
+        applyPendingUpdates();
+        if (hint == null) {
+            Toast.makeText(this, R.string.no_hint, Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if (tableau != null && hint.getType() == Move.Type.FLIP) {
+            tableau.showHint(hint.getToIndex(), 0);
+            return;
+        } else if (tableau != null && hint.getType() != Move.Type.STOCK && hint.getFromIndex() > 0) {
+            tableau.showHint(hint.getFromIndex(), hint.getCascade().length - 1);
+            return;
+        }
+        final View hintView;
+        if (hint.getType() == Move.Type.STOCK)
+            hintView = findViewById(R.id.stock);
+        else if (hint.getType() == Move.Type.FLIP)
+            hintView = getLane(hint.getToIndex() - 1).getTopCascadeCard();
+        else if (hint.getFromIndex() < 0)
+            hintView = findViewById(ResourceIds.getFoundationId(-1 * hint.getFromIndex()));
+        else if (hint.getFromIndex() == 0)
+            hintView = findViewById(R.id.waste1);
+        else {
+            final Lane lane = getLane(hint.getFromIndex() - 1);
+            hintView = lane.getCascadeCard(lane.cascadeSize - hint.getCascade().length);
+        }
+        hintView.animate().alpha(0.25f).setDuration(250).setListener(new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(final Animator animation) {
+                hintView.animate().alpha(1).setListener(null);
+            }
+        });
+    }
+
+    /**
+     * Stops the replay, hiding the replay bar. Stopping the replay of a won game finishes the activity
+     */
+    void stopReplay() {
+        if (!gameState.isReplaying())
+            return;
+        replay.hide();
+        if (gameState.isReplayOnly())
+            finish();
+        else
+            gameState.stopReplay();
+    }
+
+    /**
+     * Finishes the activity, returning the game time, move count and id of the won game
+     */
+    @Override
     public void triggerWin() {
-        setResult(RESULT_OK, WinDialogFragment.createDataIntent(getGameTime(), getMoveCount()));
+        setResult(RESULT_OK, WinDialogFragment.createDataIntent(getGameTime(), getMoveCount(), gameState.gameId));
         finish();
     }
 
     /**
-     * Updates the given foundation UI
+     * Updates the action bar to show the deal number of the current game
+     */
+    void updateDealUI() {
+        getActionBar().setSubtitle(getString(R.string.deal_title, gameState.getDeal()));
+    }
+
+    /**
+     * Marks the given foundation as changed, to be brought up to date with the game state on the next frame
      *
      * @param foundationIndex Negative One-based index (-1 through -12) for the foundation
      */
+    @Override
     public void updateFoundationUI(final int foundationIndex) {
-        final String foundationCard = gameState.getFoundationCard(-1 * (foundationIndex + 1));
-        final int foundationViewId = getResources().getIdentifier("foundation" + (foundationIndex + 1), "id",
-                getPackageName());
-        final ImageView foundationView = findViewById(foundationViewId);
-        if (foundationCard == null) {
-            foundationView.setBackgroundResource(R.drawable.foundation);
-            foundationView.setOnTouchListener(null);
-        } else {
-            foundationView.setBackgroundResource(getResources().getIdentifier(foundationCard, "drawable",
-                    getPackageName()));
-            foundationView.setOnTouchListener(new OnFoundationTouchListener(-1 * (foundationIndex + 1)));
-        }
+        dirtyFoundations |= 1 << -1 * foundationIndex - 1;
+        schedulePendingUpdates();
     }
 
     /**
-     * Updates the move count UI
+     * Updates the undo and pause menu items
      */
+    @Override
+    public void updateMenuUI() {
+        invalidateOptionsMenu();
+    }
+
+    /**
+     * Marks the move count as changed, to be brought up to date on the next frame
+     */
+    @Override
     public void updateMoveCount() {
-        final TextView moveCountView = getActionBar().getCustomView().findViewById(R.id.move_count);
-        moveCountView.setText(Integer.toString(getMoveCount()));
+        dirtyMoveCount = true;
+        schedulePendingUpdates();
     }
 
     /**
-     * Updates the stock UI
+     * Marks the stock as changed, to be brought up to date with the game state on the next frame
      */
+    @Override
     public void updateStockUI() {
-        final ImageView stockView = findViewById(R.id.stock);
-        if (gameState.isStockEmpty())
-            stockView.setBackgroundResource(R.drawable.lane);
-        else
-            stockView.setBackgroundResource(R.drawable.back);
+        dirtyStock = true;
+        schedulePendingUpdates();
     }
 
     /**
      * Updates the current game time UI
      */
+    @Override
     public void updateTime() {
         final TextView timeView = getActionBar().getCustomView().findViewById(R.id.time);
         timeView.setText(getGameTime());
     }
 
     /**
-     * Updates the waste UI
+     * Marks the waste as changed, to be brought up to date with the game state on the next frame
      */
+    @Override
     public void updateWasteUI() {
-        for (int wasteIndex = 0; wasteIndex < 3; wasteIndex++)
-            updateWasteUI(wasteIndex);
-    }
-
-    /**
-     * Updates each card in the waste
-     *
-     * @param wasteIndex Index of the card (0-2)
-     */
-    private void updateWasteUI(final int wasteIndex) {
-        final String wasteCard = gameState.getWasteCard(wasteIndex);
-        final ImageView waste = findViewById(getResources().getIdentifier("waste" + (wasteIndex + 1), "id",
-                getPackageName()));
-        if (wasteCard == null)
-            waste.setBackgroundResource(0);
-        else
-            waste.setBackgroundResource(getResources().getIdentifier(wasteCard, "drawable", getPackageName()));
+        dirtyWaste = true;
+        schedulePendingUpdates();
     }
 }
\ No newline at end of file
@@ -0,0 +1,187 @@
+package com.github.triplesolitaire;
+
+import android.view.View;
+import android.widget.Button;
+import android.widget.SeekBar;
+import android.widget.TextView;
+
+/**
+ * Controls the replay bar of the game activity, playing back the game along its undo/redo timeline at an adjustable
+ * speed and seeking with a seek bar. Each step and seek jumps along the timeline (see
+ * {@link com.github.triplesolitaire.engine.Game#jumpTo(int)}), which restores the nearest checkpoint and replays only
+ * the remaining moves, updating the UI once rather than animating every move
+ */
+public class GameReplay implements SeekBar.OnSeekBarChangeListener {
+    /**
+     * Delay between moves at normal (1x) speed, in milliseconds
+     */
+    private static final int MOVE_DELAY = 500;
+    /**
+     * Playback speeds to cycle through, as multiples of normal speed
+     */
+    private static final int[] SPEEDS = {1, 2, 4, 8};
+    /**
+     * Activity owning the replay bar
+     */
+    private final GameActivity activity;
+    /**
+     * Replay bar, holding the replay controls
+     */
+    private final View bar;
+    /**
+     * Play/pause button
+     */
+    private final Button playButton;
+    /**
+     * Whether the replay is playing back
+     */
+    private boolean playing = false;
+    /**
+     * Current position and length of the timeline
+     */
+    private final TextView positionView;
+    /**
+     * Seek bar over the timeline, from the deal to the last move
+     */
+    private final SeekBar seekBar;
+    /**
+     * Button cycling through the playback speeds
+     */
+    private final Button speedButton;
+    /**
+     * Index of the current playback speed in SPEEDS
+     */
+    private int speedIndex = 0;
+    /**
+     * Steps the replay forward by one move, posting another copy of itself until the end of the timeline
+     */
+    private final Runnable step = new Runnable() {
+        @Override
+        public void run() {
+            final GameState gameState = activity.gameState;
+            final int position = gameState.getTimelinePosition();
+            if (position >= gameState.getTimelineLength()) {
+                setPlaying(false);
+                return;
+            }
+            gameState.jumpTo(position + 1);
+            updatePosition();
+            activity.handler.postDelayed(this, GameReplay.MOVE_DELAY / GameReplay.SPEEDS[speedIndex]);
+        }
+    };
+
+    /**
+     * Creates a new GameReplay controlling the replay bar of the given activity
+     *
+     * @param activity Activity owning the replay bar
+     */
+    public GameReplay(final GameActivity activity) {
+        this.activity = activity;
+        bar = activity.findViewById(R.id.replay_bar);
+        playButton = activity.findViewById(R.id.replay_play);
+        playButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(final View v) {
+                setPlaying(!playing);
+            }
+        });
+        speedButton = activity.findViewById(R.id.replay_speed);
+        speedButton.setText(activity.getString(R.string.replay_speed, GameReplay.SPEEDS[speedIndex]));
+        speedButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(final View v) {
+                speedIndex = (speedIndex + 1) % GameReplay.SPEEDS.length;
+                speedButton.setText(activity.getString(R.string.replay_speed, GameReplay.SPEEDS[speedIndex]));
+            }
+        });
+        seekBar = activity.findViewById(R.id.replay_seek);
+        seekBar.setOnSeekBarChangeListener(this);
+        positionView = activity.findViewById(R.id.replay_position);
+        activity.findViewById(R.id.replay_done).setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(final View v) {
+                activity.stopReplay();
+            }
+        });
+    }
+
+    /**
+     * Hides the replay bar, stopping playback
+     */
+    public void hide() {
+        setPlaying(false);
+        bar.setVisibility(View.GONE);
+    }
+
+    /**
+     * Jumps to the position chosen by the user
+     *
+     * @see SeekBar.OnSeekBarChangeListener#onProgressChanged(SeekBar, int, boolean)
+     */
+    @Override
+    public void onProgressChanged(final SeekBar seekBar, final int progress, final boolean fromUser) {
+        if (!fromUser)
+            return;
+        activity.gameState.jumpTo(progress);
+        updatePosition();
+    }
+
+    /**
+     * Pauses playback while the user seeks
+     *
+     * @see SeekBar.OnSeekBarChangeListener#onStartTrackingTouch(SeekBar)
+     */
+    @Override
+    public void onStartTrackingTouch(final SeekBar seekBar) {
+        setPlaying(false);
+    }
+
+    /**
+     * Does nothing, as playback stays paused once the user has chosen a position
+     *
+     * @see SeekBar.OnSeekBarChangeListener#onStopTrackingTouch(SeekBar)
+     */
+    @Override
+    public void onStopTrackingTouch(final SeekBar seekBar) {
+    }
+
+    /**
+     * Starts or stops playback. Starting playback at the end of the timeline starts over from the deal
+     *
+     * @param newPlaying Whether the replay should play back
+     */
+    public void setPlaying(final boolean newPlaying) {
+        playing = newPlaying;
+        activity.handler.removeCallbacks(step);
+        playButton.setText(playing ? R.string.replay_pause : R.string.replay_play);
+        if (!playing)
+            return;
+        final GameState gameState = activity.gameState;
+        if (gameState.getTimelinePosition() >= gameState.getTimelineLength()) {
+            gameState.jumpTo(0);
+            updatePosition();
+        }
+        activity.handler.postDelayed(step, GameReplay.MOVE_DELAY / GameReplay.SPEEDS[speedIndex]);
+    }
+
+    /**
+     * Shows the replay bar at the current position of the game, starting playback
+     */
+    public void show() {
+        seekBar.setMax(activity.gameState.getTimelineLength());
+        updatePosition();
+        bar.setVisibility(View.VISIBLE);
+        setPlaying(true);
+    }
+
+    /**
+     * Updates the seek bar and position text to the current position of the game
+     */
+    private void updatePosition() {
+        final GameState gameState = activity.gameState;
+        final int position = gameState.getTimelinePosition();
+        seekBar.setProgress(position);
+        positionView.setText(activity.getString(R.string.replay_position, position,
+                gameState.getTimelineLength()));
+    }
+}
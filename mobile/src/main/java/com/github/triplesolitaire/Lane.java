@@ -11,7 +11,9 @@ import android.view.View;
 import android.view.View.OnDragListener;
 import android.widget.RelativeLayout;
 
-import java.util.List;
+import com.github.triplesolitaire.engine.Cards;
+import com.github.triplesolitaire.engine.Game;
+import com.github.triplesolitaire.engine.Move;
 
 /**
  * Layout to support drawing and managing a lane, including the stack and cascade
@@ -56,6 +58,15 @@ public class Lane extends RelativeLayout implements OnDragListener {
      * Logging tag
      */
     private static final String TAG = "GameActivity";
+    /**
+     * Pool of card views, shared with the other lanes
+     */
+    private CardPool cardPool;
+    /**
+     * Cards in the cascade, where the first card is the bottom card of the cascade. Only the first cascadeSize cards
+     * are in the cascade
+     */
+    private int[] cascadeCards = new int[16];
     /**
      * Current size of the cascade
      */
@@ -95,26 +106,27 @@ public class Lane extends RelativeLayout implements OnDragListener {
      * Adds a new set of cards to the cascade. Creates the new card Views and ensures that the appropriate listeners are
      * set.
      *
-     * @param cascadeToAdd List of cards to add to the cascade
+     * @param cascadeToAdd Cards to add to the cascade, where the first card is the bottom card of the cascade
      */
-    public void addCascade(final List<String> cascadeToAdd) {
+    public void addCascade(final int[] cascadeToAdd) {
         final int card_vert_overlap_dim = getResources().getDimensionPixelSize(R.dimen.card_vert_overlap_dim);
+        if (cascadeSize + cascadeToAdd.length > cascadeCards.length) {
+            final int[] grownCascadeCards = new int[2 * (cascadeSize + cascadeToAdd.length)];
+            System.arraycopy(cascadeCards, 0, grownCascadeCards, 0, cascadeSize);
+            cascadeCards = grownCascadeCards;
+        }
+        System.arraycopy(cascadeToAdd, 0, cascadeCards, cascadeSize, cascadeToAdd.length);
         // Create the cascade
-        for (int h = 0; h < cascadeToAdd.size(); h++) {
+        for (int h = 0; h < cascadeToAdd.length; h++) {
             final int cascadeId = h + cascadeSize + stackSize + 1;
-            final Card cascadeCard = new Card(getContext(), getResources().getIdentifier(cascadeToAdd.get(h),
-                    "drawable", getContext().getPackageName()));
+            final Card cascadeCard = cardPool.obtainCard(cascadeToAdd[h]);
             cascadeCard.setId(cascadeId);
-            final RelativeLayout.LayoutParams lp = new RelativeLayout.LayoutParams(
-                    android.view.ViewGroup.LayoutParams.WRAP_CONTENT, android.view.ViewGroup.LayoutParams.WRAP_CONTENT);
-            lp.addRule(RelativeLayout.ALIGN_TOP, cascadeId - 1);
-            lp.addRule(RelativeLayout.ALIGN_PARENT_LEFT);
-            if (stackSize + cascadeSize + h != 0)
-                lp.setMargins(0, card_vert_overlap_dim, 0, 0);
+            final RelativeLayout.LayoutParams lp = getCardLayoutParams(cascadeCard, cascadeId - 1,
+                    stackSize + cascadeSize + h != 0 ? card_vert_overlap_dim : 0);
             cascadeCard.setOnTouchListener(new OnStartDragListener(h + cascadeSize));
             addView(cascadeCard, lp);
         }
-        if (cascadeSize == 0 && !cascadeToAdd.isEmpty())
+        if (cascadeSize == 0 && cascadeToAdd.length > 0)
             if (stackSize > 0) {
                 // Remove the onCardFlipListener from the top card on the stack
                 // if there is a cascade now
@@ -130,11 +142,11 @@ public class Lane extends RelativeLayout implements OnDragListener {
             final Card oldTopCascade = findViewById(stackSize + cascadeSize);
             oldTopCascade.setOnDragListener(null);
         }
-        if (!cascadeToAdd.isEmpty()) {
+        if (cascadeToAdd.length > 0) {
             final Card newTopCascade = findViewById(getChildCount() - 1);
             newTopCascade.setOnDragListener(this);
         }
-        cascadeSize += cascadeToAdd.size();
+        cascadeSize += cascadeToAdd.length;
     }
 
     /**
@@ -143,10 +155,8 @@ public class Lane extends RelativeLayout implements OnDragListener {
      * @param removeCount The number of cards to remove from the cascade
      */
     public void decrementCascadeSize(final int removeCount) {
-        for (int h = 0; h < removeCount; h++) {
-            removeViewAt(getChildCount() - 1);
-            cascadeSize -= 1;
-        }
+        removeCards(getChildCount() - removeCount);
+        cascadeSize -= removeCount;
         if (stackSize + cascadeSize == 0) {
             final Card laneBase = findViewById(0);
             laneBase.setOnDragListener(this);
@@ -160,19 +170,55 @@ public class Lane extends RelativeLayout implements OnDragListener {
     }
 
     /**
-     * Flips over the top card, replacing the card back image with the given card
+     * Flips over the top card, replacing the card back image with the given card. Should only be called when the
+     * cascade is empty
      *
      * @param card The card to show as the newly flipped over card
      */
-    public void flipOverTopStack(final String card) {
+    public void flipOverTopStack(final int card) {
         final Card toFlip = findViewById(stackSize);
-        toFlip.setBackgroundResource(getResources().getIdentifier(card, "drawable", getContext().getPackageName()));
+        toFlip.setCard(card);
         toFlip.invalidate();
         toFlip.setOnClickListener(null);
         toFlip.setOnDragListener(this);
         toFlip.setOnTouchListener(new OnStartDragListener(0));
         stackSize -= 1;
-        cascadeSize += 1;
+        cascadeCards[0] = card;
+        cascadeSize = 1;
+    }
+
+    /**
+     * Gets layout parameters placing the given card below another card of this lane, reusing the card's existing
+     * parameters if it was last used in a lane
+     *
+     * @param card       Card to lay out
+     * @param alignTopId ID of the card (or lane base) to align the top of the card with
+     * @param topMargin  Offset of the card below the card it is aligned with
+     * @return The layout parameters for the card
+     */
+    private static RelativeLayout.LayoutParams getCardLayoutParams(final Card card, final int alignTopId,
+                                                                   final int topMargin) {
+        final RelativeLayout.LayoutParams lp;
+        if (card.getLayoutParams() instanceof RelativeLayout.LayoutParams)
+            lp = (RelativeLayout.LayoutParams) card.getLayoutParams();
+        else {
+            lp = new RelativeLayout.LayoutParams(android.view.ViewGroup.LayoutParams.WRAP_CONTENT,
+                    android.view.ViewGroup.LayoutParams.WRAP_CONTENT);
+            lp.addRule(RelativeLayout.ALIGN_PARENT_LEFT);
+        }
+        lp.addRule(RelativeLayout.ALIGN_TOP, alignTopId);
+        lp.setMargins(0, topMargin, 0, 0);
+        return lp;
+    }
+
+    /**
+     * Returns the Card (ImageView) associated with the given cascade card
+     *
+     * @param cascadeIndex Zero based index of the card in the cascade, where the 0th card is closest to the stack
+     * @return The Card associated with the cascade card
+     */
+    public Card getCascadeCard(final int cascadeIndex) {
+        return (Card) findViewById(stackSize + cascadeIndex + 1);
     }
 
     /**
@@ -194,18 +240,22 @@ public class Lane extends RelativeLayout implements OnDragListener {
     public boolean onDrag(final View v, final DragEvent event) {
         final boolean isMyCascade = laneId == (Integer) event.getLocalState();
         if (event.getAction() == DragEvent.ACTION_DRAG_STARTED) {
-            String card = event.getClipDescription().getLabel().toString();
+            String cardData = event.getClipDescription().getLabel().toString();
             if (isMyCascade) {
                 if (BuildConfig.DEBUG)
-                    Log.d(Lane.TAG, "Drag " + laneId + ": Started of " + card);
+                    Log.d(Lane.TAG, "Drag " + laneId + ": Started of " + cardData);
                 return true;
             }
             // Take off MULTI prefix - we accept all cascades based on the
             // bottom card alone
-            if (card.startsWith("MULTI"))
-                card = card.substring(5, card.indexOf(';'));
-            return cascadeSize == 0 ? GameState.acceptLaneDrop(laneId, card) : gameState
+            if (cardData.startsWith("MULTI"))
+                cardData = cardData.substring(5, cardData.indexOf(';'));
+            final int card = Integer.parseInt(cardData);
+            final boolean acceptDrop = cascadeSize == 0 ? Game.acceptLaneDrop(laneId, card) : gameState
                     .acceptCascadeDrop(laneId, card);
+            if (acceptDrop && BuildConfig.DEBUG)
+                Log.d(Lane.TAG, "Drag -> " + laneId + ": Acceptable drag of " + Cards.getName(card));
+            return acceptDrop;
         } else if (event.getAction() == DragEvent.ACTION_DROP && !isMyCascade) {
             if (Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT)
                 System.gc();
@@ -227,6 +277,27 @@ public class Lane extends RelativeLayout implements OnDragListener {
         return true;
     }
 
+    /**
+     * Removes the cards from the given child index to the top of the lane, returning them to the card pool
+     *
+     * @param start Index of the first child to remove, at least 1 to keep the lane base
+     */
+    private void removeCards(final int start) {
+        final int childCount = getChildCount();
+        for (int childIndex = start; childIndex < childCount; childIndex++)
+            cardPool.recycle((Card) getChildAt(childIndex));
+        removeViews(start, childCount - start);
+    }
+
+    /**
+     * Setter for the card pool
+     *
+     * @param cardPool Pool of card views, shared with the other lanes
+     */
+    public void setCardPool(final CardPool cardPool) {
+        this.cardPool = cardPool;
+    }
+
     /**
      * Setter for the game state
      *
@@ -261,27 +332,47 @@ public class Lane extends RelativeLayout implements OnDragListener {
      */
     public void setStackSize(final int newStackSize) {
         // Remove the existing views, including the cascade
-        removeViews(1, getChildCount() - 1);
+        removeCards(1);
         cascadeSize = 0;
-        if (stackSize == 0 && newStackSize > 0) {
-            final Card laneBase = findViewById(0);
-            laneBase.setOnDragListener(null);
-        }
+        // With the cascade removed, the lane base accepts drops exactly when the lane is left empty
+        final Card laneBase = findViewById(0);
+        laneBase.setOnDragListener(newStackSize == 0 ? this : null);
         stackSize = newStackSize;
         final int card_vert_overlap_dim = getResources().getDimensionPixelSize(R.dimen.card_vert_overlap_dim);
         // Create the stack
         for (int stackId = 1; stackId <= stackSize; stackId++) {
-            final Card stackCard = new Card(getContext(), R.drawable.back);
+            final Card stackCard = cardPool.obtain(R.drawable.back);
             stackCard.setId(stackId);
-            final RelativeLayout.LayoutParams lp = new RelativeLayout.LayoutParams(
-                    android.view.ViewGroup.LayoutParams.WRAP_CONTENT, android.view.ViewGroup.LayoutParams.WRAP_CONTENT);
-            lp.addRule(RelativeLayout.ALIGN_TOP, stackId - 1);
-            lp.addRule(RelativeLayout.ALIGN_PARENT_LEFT);
-            if (stackId != 1)
-                lp.setMargins(0, card_vert_overlap_dim, 0, 0);
+            final RelativeLayout.LayoutParams lp = getCardLayoutParams(stackCard, stackId - 1,
+                    stackId != 1 ? card_vert_overlap_dim : 0);
             if (cascadeSize == 0 && stackId == stackSize)
                 stackCard.setOnClickListener(onCardFlipListener);
             addView(stackCard, stackId, lp);
         }
     }
+
+    /**
+     * Brings this lane up to date with the game state, changing as few card views as possible: a single flip or cards
+     * removed from and added to the top of the cascade are applied as such, and only a changed stack rebuilds the lane
+     */
+    public void sync() {
+        final int newStackSize = gameState.getStackSize(laneId);
+        final int newCascadeSize = gameState.getCascadeSize(laneId);
+        if (newStackSize == stackSize - 1 && cascadeSize == 0 && newCascadeSize > 0)
+            flipOverTopStack(gameState.getCascadeCard(laneId, 0));
+        else if (newStackSize != stackSize)
+            setStackSize(newStackSize);
+        int unchangedSize = 0;
+        while (unchangedSize < cascadeSize && unchangedSize < newCascadeSize
+                && cascadeCards[unchangedSize] == gameState.getCascadeCard(laneId, unchangedSize))
+            unchangedSize++;
+        if (unchangedSize < cascadeSize)
+            decrementCascadeSize(cascadeSize - unchangedSize);
+        if (unchangedSize < newCascadeSize) {
+            final int[] cascadeToAdd = new int[newCascadeSize - unchangedSize];
+            for (int cascadeIndex = 0; cascadeIndex < cascadeToAdd.length; cascadeIndex++)
+                cascadeToAdd[cascadeIndex] = gameState.getCascadeCard(laneId, unchangedSize + cascadeIndex);
+            addCascade(cascadeToAdd);
+        }
+    }
 }
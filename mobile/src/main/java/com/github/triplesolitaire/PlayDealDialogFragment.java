@@ -0,0 +1,40 @@
+package com.github.triplesolitaire;
+
+import android.app.AlertDialog;
+import android.app.Dialog;
+import android.app.DialogFragment;
+import android.content.DialogInterface;
+import android.os.Build;
+import android.os.Bundle;
+import android.text.InputType;
+import android.widget.EditText;
+
+/**
+ * Dialog to enter the deal number of a specific game to play
+ */
+public class PlayDealDialogFragment extends DialogFragment {
+    @Override
+    public Dialog onCreateDialog(final Bundle savedInstanceState) {
+        final AlertDialog.Builder builder = new AlertDialog.Builder(getActivity());
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+            builder.setIcon(R.drawable.ic_launcher);
+        }
+        final EditText dealView = new EditText(getActivity());
+        dealView.setInputType(InputType.TYPE_CLASS_NUMBER);
+        dealView.setHint(R.string.play_deal_hint);
+        builder.setTitle(R.string.play_deal).setView(dealView)
+                .setPositiveButton(R.string.play_deal_positive, new DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(final DialogInterface dialog, final int which) {
+                        final long deal;
+                        try {
+                            deal = Long.parseLong(dealView.getText().toString());
+                        } catch (final NumberFormatException e) {
+                            return;
+                        }
+                        ((TripleSolitaireActivity) getActivity()).playDeal(deal);
+                    }
+                }).setNegativeButton(R.string.quit_negative, null);
+        return builder.create();
+    }
+}
@@ -125,6 +125,10 @@ public class Preferences extends PreferenceActivity {
      * Auto Play preference name
      */
     public static final String AUTO_PLAY_PREFERENCE_KEY = "auto_play";
+    /**
+     * Single View Tableau preference name
+     */
+    public static final String SINGLE_VIEW_TABLEAU_PREFERENCE_KEY = "single_view_tableau";
 
     @Override
     public void onBuildHeaders(final List<Header> target) {
@@ -0,0 +1,60 @@
+package com.github.triplesolitaire;
+
+/**
+ * Lookup tables from pile indexes to their view IDs, built once from the generated R constants rather than looking up
+ * each view ID by name (Resources.getIdentifier) on every update. Card faces are drawn from {@link CardAtlas}
+ */
+public final class ResourceIds {
+    /**
+     * View IDs of each foundation, indexed from 0
+     */
+    private static final int[] FOUNDATION_IDS = {R.id.foundation1, R.id.foundation2, R.id.foundation3,
+            R.id.foundation4, R.id.foundation5, R.id.foundation6, R.id.foundation7, R.id.foundation8, R.id.foundation9,
+            R.id.foundation10, R.id.foundation11, R.id.foundation12};
+    /**
+     * View IDs of each lane, indexed from 0
+     */
+    private static final int[] LANE_IDS = {R.id.lane1, R.id.lane2, R.id.lane3, R.id.lane4, R.id.lane5, R.id.lane6,
+            R.id.lane7, R.id.lane8, R.id.lane9, R.id.lane10, R.id.lane11, R.id.lane12, R.id.lane13};
+    /**
+     * View IDs of each waste card, indexed from 0 (the top card)
+     */
+    private static final int[] WASTE_IDS = {R.id.waste1, R.id.waste2, R.id.waste3};
+
+    /**
+     * Gets the view ID of the given foundation
+     *
+     * @param foundationIndex Index of the foundation, from 1 through 12 (as a positive index rather than the negative
+     *                        move location)
+     * @return The view ID of the foundation
+     */
+    public static int getFoundationId(final int foundationIndex) {
+        return ResourceIds.FOUNDATION_IDS[foundationIndex - 1];
+    }
+
+    /**
+     * Gets the view ID of the given lane
+     *
+     * @param laneIndex Index of the lane, from 1 through 13
+     * @return The view ID of the lane
+     */
+    public static int getLaneId(final int laneIndex) {
+        return ResourceIds.LANE_IDS[laneIndex - 1];
+    }
+
+    /**
+     * Gets the view ID of the given waste card
+     *
+     * @param wasteIndex Index of the waste card, from 1 (the top card) through 3
+     * @return The view ID of the waste card
+     */
+    public static int getWasteId(final int wasteIndex) {
+        return ResourceIds.WASTE_IDS[wasteIndex - 1];
+    }
+
+    /**
+     * Prevents instantiation, as this class only holds static lookups
+     */
+    private ResourceIds() {
+    }
+}
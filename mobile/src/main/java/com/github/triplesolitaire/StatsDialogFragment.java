@@ -3,42 +3,88 @@ package com.github.triplesolitaire;
 import android.app.AlertDialog;
 import android.app.Dialog;
 import android.app.DialogFragment;
+import android.app.LoaderManager.LoaderCallbacks;
+import android.content.CursorLoader;
+import android.content.Loader;
+import android.database.Cursor;
 import android.os.Build;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.TextView;
 
+import com.github.triplesolitaire.provider.GameContract;
+
 import java.text.NumberFormat;
 
 /**
- * Stats Dialog for the application
+ * Stats Dialog for the application. The stats are loaded as a single summary row aggregated by the GameProvider, so
+ * showing them costs the same however many games have been played
  */
-public class StatsDialogFragment extends DialogFragment {
-    private static final String STATS_STATE = "STATS_STATE";
+public class StatsDialogFragment extends DialogFragment implements LoaderCallbacks<Cursor> {
+    /**
+     * Summary columns shown by the dialog. Naming them keeps the provider from computing the summary columns not
+     * shown, such as the longest win streak, which needs a subquery over every game
+     */
+    private static final String[] PROJECTION = {GameContract.GamesSummary.COLUMN_NAME_GAMES_PLAYED,
+            GameContract.GamesSummary.COLUMN_NAME_GAMES_WON, GameContract.GamesSummary.COLUMN_NAME_AVERAGE_DURATION,
+            GameContract.GamesSummary.COLUMN_NAME_AVERAGE_MOVES};
 
     /**
-     * Create a new StatsDialogFragment with the given StatsState
+     * Create a new StatsDialogFragment
      *
-     * @param stats Stats to display
      * @return A valid StatsDialogFragment
      */
-    public static StatsDialogFragment createInstance(final StatsState stats) {
-        final StatsDialogFragment statsDialogFragment = new StatsDialogFragment();
-        final Bundle args = new Bundle();
-        args.putString(STATS_STATE, stats.toString());
-        statsDialogFragment.setArguments(args);
-        return statsDialogFragment;
+    public static StatsDialogFragment createInstance() {
+        return new StatsDialogFragment();
+    }
+
+    /**
+     * Layout of the dialog, filled in once the summary is loaded
+     */
+    private View layout;
+
+    /**
+     * Starts loading the games summary
+     *
+     * @see android.app.Fragment#onActivityCreated(android.os.Bundle)
+     */
+    @Override
+    public void onActivityCreated(final Bundle savedInstanceState) {
+        super.onActivityCreated(savedInstanceState);
+        getLoaderManager().initLoader(0, null, this);
     }
 
     @Override
     public Dialog onCreateDialog(final Bundle savedInstanceState) {
-        final StatsState stats = new StatsState(getArguments().getString(STATS_STATE));
-        final int gamesPlayed = stats.getGamesPlayed();
-        final int gamesWon = stats.getGamesWon(false);
         final AlertDialog.Builder builder = new AlertDialog.Builder(getActivity());
         final LayoutInflater inflater = getActivity().getLayoutInflater();
-        final View layout = inflater.inflate(R.layout.stats_dialog, null);
+        layout = inflater.inflate(R.layout.stats_dialog, null);
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+            builder.setIcon(R.drawable.ic_launcher);
+        }
+        builder.setTitle(R.string.stats).setView(layout)
+                .setNegativeButton(getText(R.string.close), null);
+        return builder.create();
+    }
+
+    @Override
+    public Loader<Cursor> onCreateLoader(final int id, final Bundle args) {
+        return new CursorLoader(getActivity(), GameContract.GamesSummary.CONTENT_URI,
+                StatsDialogFragment.PROJECTION, null, null, null);
+    }
+
+    @Override
+    public void onLoaderReset(final Loader<Cursor> loader) {
+        // Nothing to do
+    }
+
+    @Override
+    public void onLoadFinished(final Loader<Cursor> loader, final Cursor data) {
+        if (data == null || !data.moveToFirst())
+            return;
+        final int gamesPlayed = data.getInt(data.getColumnIndex(GameContract.GamesSummary.COLUMN_NAME_GAMES_PLAYED));
+        final int gamesWon = data.getInt(data.getColumnIndex(GameContract.GamesSummary.COLUMN_NAME_GAMES_WON));
         final TextView gamesPlayedView = layout.findViewById(R.id.games_played);
         gamesPlayedView.setText(Integer.toString(gamesPlayed));
         final TextView gamesWonView = layout.findViewById(R.id.games_won);
@@ -55,7 +101,8 @@ public class StatsDialogFragment extends DialogFragment {
         if (gamesWon == 0)
             averageDurationView.setText(getText(R.string.stats_na));
         else {
-            final double averageDuration = stats.getAverageDuration();
+            final double averageDuration = data.getDouble(data.getColumnIndex(
+                    GameContract.GamesSummary.COLUMN_NAME_AVERAGE_DURATION));
             final int minutes = (int) (averageDuration / 60);
             final int seconds = (int) (averageDuration % 60);
             final StringBuilder sb = new StringBuilder();
@@ -71,14 +118,9 @@ public class StatsDialogFragment extends DialogFragment {
         if (gamesWon == 0)
             averageMovesView.setText(getText(R.string.stats_na));
         else {
-            final double averageMoves = stats.getAverageMoves();
+            final double averageMoves = data.getDouble(data.getColumnIndex(
+                    GameContract.GamesSummary.COLUMN_NAME_AVERAGE_MOVES));
             averageMovesView.setText(integerFormat.format(averageMoves));
         }
-        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
-            builder.setIcon(R.drawable.ic_launcher);
-        }
-        builder.setTitle(R.string.stats).setView(layout)
-                .setNegativeButton(getText(R.string.close), null);
-        return builder.create();
     }
 }
@@ -1,6 +1,5 @@
 package com.github.triplesolitaire;
 
-import android.content.ContentProviderOperation;
 import android.content.ContentValues;
 import android.database.Cursor;
 import android.text.format.DateUtils;
@@ -12,7 +11,6 @@ import com.github.triplesolitaire.provider.GameContract;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.util.ArrayList;
 import java.util.Iterator;
 
 /**
@@ -59,6 +57,58 @@ public class StatsState {
     // serialization format version
     private static final String SERIAL_VERSION = "1.0";
     private final SparseArray<GameStats> gameStats = new SparseArray<>();
+    /**
+     * Number of games won in a row at the end of the games (i.e., the streak the next game would continue)
+     */
+    private int currentWinStreak = 0;
+    /**
+     * Sum of the durations of all games, in seconds (games lost count as 0)
+     */
+    private long durationSum = 0;
+    /**
+     * Number of unsynced games
+     */
+    private int gamesUnsynced = 0;
+    /**
+     * Number of games won
+     */
+    private int gamesWon = 0;
+    /**
+     * Number of unsynced games won
+     */
+    private int gamesWonUnsynced = 0;
+    /**
+     * Maximum number of games won in a row
+     */
+    private int longestWinStreak = 0;
+    /**
+     * Whether the minima need to be recomputed, as a game counted in them was replaced
+     */
+    private boolean minimaStale = false;
+    /**
+     * Minimum number of moves in any won game, or Integer.MAX_VALUE if none have been won
+     */
+    private int minimumMoves = Integer.MAX_VALUE;
+    /**
+     * Minimum number of moves in any unsynced won game, or Integer.MAX_VALUE if none have been won
+     */
+    private int minimumMovesUnsynced = Integer.MAX_VALUE;
+    /**
+     * Sum of the moves of all games (games lost count as 0)
+     */
+    private long movesSum = 0;
+    /**
+     * Shortest duration of any won game in seconds, or Integer.MAX_VALUE if none have been won
+     */
+    private int shortestTime = Integer.MAX_VALUE;
+    /**
+     * Shortest duration of any unsynced won game in seconds, or Integer.MAX_VALUE if none have been won
+     */
+    private int shortestTimeUnsynced = Integer.MAX_VALUE;
+    /**
+     * Whether the win streaks need to be recomputed, as a game was added before the last game or replaced
+     */
+    private boolean streaksStale = false;
 
     /**
      * Constructs an empty StatsState (i.e., no games played)
@@ -92,11 +142,11 @@ public class StatsState {
             final int startTime = data.getInt(startTimeColumnIndex);
             final boolean synced = data.getInt(syncedColumnIndex) != 0;
             if (data.isNull(durationColumnIndex) || data.getInt(durationColumnIndex) == 0)
-                gameStats.put(startTime, new GameStats(synced));
+                put(startTime, new GameStats(synced));
             else {
                 final int duration = data.getInt(durationColumnIndex);
                 final int moves = data.getInt(movesColumnIndex);
-                gameStats.put(startTime, new GameStats(duration, moves, synced));
+                put(startTime, new GameStats(duration, moves, synced));
             }
         }
     }
@@ -119,7 +169,7 @@ public class StatsState {
             while (iter.hasNext()) {
                 final String startTime = (String) iter.next();
                 final GameStats gameStat = new GameStats(levels.getJSONObject(startTime));
-                gameStats.put(Integer.valueOf(startTime), gameStat);
+                put(Integer.valueOf(startTime), gameStat);
             }
         } catch (final JSONException e) {
             Log.e(StatsState.class.getSimpleName(), "Error parsing JSON", e);
@@ -141,6 +191,19 @@ public class StatsState {
             final int key = gameStats.keyAt(index);
             result.gameStats.put(key, gameStats.get(key));
         }
+        result.currentWinStreak = currentWinStreak;
+        result.durationSum = durationSum;
+        result.gamesUnsynced = gamesUnsynced;
+        result.gamesWon = gamesWon;
+        result.gamesWonUnsynced = gamesWonUnsynced;
+        result.longestWinStreak = longestWinStreak;
+        result.minimaStale = minimaStale;
+        result.minimumMoves = minimumMoves;
+        result.minimumMovesUnsynced = minimumMovesUnsynced;
+        result.movesSum = movesSum;
+        result.shortestTime = shortestTime;
+        result.shortestTimeUnsynced = shortestTimeUnsynced;
+        result.streaksStale = streaksStale;
         return result;
     }
 
@@ -150,11 +213,7 @@ public class StatsState {
      * @return Average game duration in seconds
      */
     public double getAverageDuration() {
-        double durationSum = 0;
-        final int size = gameStats.size();
-        for (int index = 0; index < size; index++)
-            durationSum += gameStats.get(gameStats.keyAt(index)).duration;
-        return durationSum / getGamesWon(false);
+        return (double) durationSum / gamesWon;
     }
 
     /**
@@ -163,11 +222,7 @@ public class StatsState {
      * @return Average game moves
      */
     public double getAverageMoves() {
-        double moveSum = 0;
-        final int size = gameStats.size();
-        for (int index = 0; index < size; index++)
-            moveSum += gameStats.get(gameStats.keyAt(index)).moves;
-        return moveSum / getGamesWon(false);
+        return (double) movesSum / gamesWon;
     }
 
     /**
@@ -186,14 +241,7 @@ public class StatsState {
      * @return The number of games won
      */
     public int getGamesWon(final boolean onlyUnsynced) {
-        int gamesWon = 0;
-        for (int index = 0; index < gameStats.size(); index++) {
-            final GameStats stats = gameStats.get(gameStats.keyAt(index));
-            if (stats.loss || (onlyUnsynced && stats.synced))
-                continue;
-            gamesWon++;
-        }
-        return gamesWon;
+        return onlyUnsynced ? gamesWonUnsynced : gamesWon;
     }
 
     /**
@@ -201,13 +249,6 @@ public class StatsState {
      * @return The number of unsynced games
      */
     public int getGamesUnsynced() {
-        int gamesUnsynced = 0;
-        for (int index = 0; index < gameStats.size(); index++) {
-            final GameStats stats = gameStats.get(gameStats.keyAt(index));
-            if (!stats.synced) {
-                gamesUnsynced++;
-            }
-        }
         return gamesUnsynced;
     }
 
@@ -217,27 +258,23 @@ public class StatsState {
      * @return The time played across all games in milliseconds
      */
     public long getTotalPlayedTimeMillis() {
-        long playedTimeMillis = 0;
-        for (int index = 0; index < gameStats.size(); index++) {
-            final GameStats stats = gameStats.get(gameStats.keyAt(index));
-            playedTimeMillis += stats.duration * DateUtils.SECOND_IN_MILLIS;
-        }
-        return playedTimeMillis;
+        return durationSum * DateUtils.SECOND_IN_MILLIS;
     }
 
 
     /**
-     * Gets a list of ContentProviderOperations that save all of the current game stats to the local ContentProvider.
-     * Note that this does not look for already existing records, but assumes the ContentProvider can ignore duplicates
+     * Gets the values of all of the current game stats, to be saved to the local ContentProvider in a single bulk
+     * insert. Note that this does not look for already existing records, but assumes the ContentProvider updates the
+     * game started at the same time instead of inserting a duplicate
      *
-     * @return List of operations needed to save these stats to the local ContentProvider
+     * @return Values of every game, in start time order
      */
-    public ArrayList<ContentProviderOperation> getLocalSaveOperations() {
-        final ArrayList<ContentProviderOperation> operations = new ArrayList<>();
+    public ContentValues[] getLocalSaveValues() {
         final int size = gameStats.size();
+        final ContentValues[] valuesArray = new ContentValues[size];
         for (int index = 0; index < size; index++) {
             final int startTime = gameStats.keyAt(index);
-            final GameStats stats = gameStats.get(startTime);
+            final GameStats stats = gameStats.valueAt(index);
             final ContentValues values = new ContentValues();
             values.put(GameContract.Games.COLUMN_NAME_START_TIME, startTime);
             if (stats.loss) {
@@ -248,10 +285,9 @@ public class StatsState {
                 values.put(GameContract.Games.COLUMN_NAME_MOVES, stats.moves);
             }
             values.put(GameContract.Games.COLUMN_NAME_SYNCED, stats.synced);
-            operations.add(ContentProviderOperation.newInsert(GameContract.Games.CONTENT_URI).withValues(values)
-                    .build());
+            valuesArray[index] = values;
         }
-        return operations;
+        return valuesArray;
     }
 
     /**
@@ -260,18 +296,8 @@ public class StatsState {
      * @return The maximum number of games won in a row
      */
     public int getLongestWinStreak() {
-        int currentStreak = 0;
-        int longestWinStreak = 0;
-        final int size = gameStats.size();
-        for (int index = 0; index < size; index++) {
-            final GameStats stats = gameStats.get(gameStats.keyAt(index));
-            if (stats.loss) {
-                longestWinStreak = Math.max(longestWinStreak, currentStreak);
-                currentStreak = 0;
-            } else
-                currentStreak++;
-        }
-        longestWinStreak = Math.max(longestWinStreak, currentStreak);
+        if (streaksStale)
+            recomputeStreaks();
         return longestWinStreak;
     }
 
@@ -282,20 +308,12 @@ public class StatsState {
      * @return The minimum number of moves used to win a game
      */
     public int getMinimumMoves(final boolean onlyUnsynced) {
-        int numConsidered = 0;
-        int minimumMoves = Integer.MAX_VALUE;
-        final int size = gameStats.size();
-        for (int index = 0; index < size; index++) {
-            final GameStats stats = gameStats.get(gameStats.keyAt(index));
-            if (stats.loss || (onlyUnsynced && stats.synced))
-                continue;
-            minimumMoves = Math.min(minimumMoves, stats.moves);
-            numConsidered++;
-        }
+        if (minimaStale)
+            recomputeMinima();
         if (BuildConfig.DEBUG)
             Log.d(StatsState.class.getSimpleName(), "Get Minimum Moves" + (onlyUnsynced ? " (Unsynced)" : "")
-                    + ": considered " + numConsidered);
-        return minimumMoves;
+                    + ": considered " + getGamesWon(onlyUnsynced));
+        return onlyUnsynced ? minimumMovesUnsynced : minimumMoves;
     }
 
     /**
@@ -305,20 +323,95 @@ public class StatsState {
      * @return The shortest time (in seconds) in any won game
      */
     public int getShortestTime(final boolean onlyUnsynced) {
-        int numConsidered = 0;
-        int shortestDuration = Integer.MAX_VALUE;
+        if (minimaStale)
+            recomputeMinima();
+        if (BuildConfig.DEBUG)
+            Log.d(StatsState.class.getSimpleName(), "Get Shorted Time" + (onlyUnsynced ? " (Unsynced)" : "")
+                    + ": considered " + getGamesWon(onlyUnsynced));
+        return onlyUnsynced ? shortestTimeUnsynced : shortestTime;
+    }
+
+    /**
+     * Adds or replaces the stats of the game started at the given time, keeping the aggregates up to date. Counts and
+     * sums are updated in place, as are the minima and win streaks unless a won game is replaced or a game is added
+     * before the last game, in which case they are recomputed on next use
+     *
+     * @param startTime Start time of the game
+     * @param stats     Stats of the game
+     */
+    private void put(final int startTime, final GameStats stats) {
+        final int index = gameStats.indexOfKey(startTime);
+        if (index >= 0) {
+            final GameStats replaced = gameStats.valueAt(index);
+            durationSum -= replaced.duration;
+            movesSum -= replaced.moves;
+            if (!replaced.synced)
+                gamesUnsynced--;
+            if (!replaced.loss) {
+                gamesWon--;
+                if (!replaced.synced)
+                    gamesWonUnsynced--;
+                minimaStale = true;
+            }
+            streaksStale = true;
+        } else if (gameStats.size() > 0 && startTime < gameStats.keyAt(gameStats.size() - 1))
+            streaksStale = true;
+        gameStats.put(startTime, stats);
+        durationSum += stats.duration;
+        movesSum += stats.moves;
+        if (!stats.synced)
+            gamesUnsynced++;
+        if (!stats.loss) {
+            gamesWon++;
+            minimumMoves = Math.min(minimumMoves, stats.moves);
+            shortestTime = Math.min(shortestTime, stats.duration);
+            if (!stats.synced) {
+                gamesWonUnsynced++;
+                minimumMovesUnsynced = Math.min(minimumMovesUnsynced, stats.moves);
+                shortestTimeUnsynced = Math.min(shortestTimeUnsynced, stats.duration);
+            }
+        }
+        if (!streaksStale) {
+            currentWinStreak = stats.loss ? 0 : currentWinStreak + 1;
+            longestWinStreak = Math.max(longestWinStreak, currentWinStreak);
+        }
+    }
+
+    /**
+     * Recomputes the minimum moves and shortest times from every game
+     */
+    private void recomputeMinima() {
+        minimumMoves = Integer.MAX_VALUE;
+        minimumMovesUnsynced = Integer.MAX_VALUE;
+        shortestTime = Integer.MAX_VALUE;
+        shortestTimeUnsynced = Integer.MAX_VALUE;
         final int size = gameStats.size();
         for (int index = 0; index < size; index++) {
-            final GameStats stats = gameStats.get(gameStats.keyAt(index));
-            if (stats.loss || (onlyUnsynced && stats.synced))
+            final GameStats stats = gameStats.valueAt(index);
+            if (stats.loss)
                 continue;
-            shortestDuration = Math.min(shortestDuration, stats.duration);
-            numConsidered++;
+            minimumMoves = Math.min(minimumMoves, stats.moves);
+            shortestTime = Math.min(shortestTime, stats.duration);
+            if (!stats.synced) {
+                minimumMovesUnsynced = Math.min(minimumMovesUnsynced, stats.moves);
+                shortestTimeUnsynced = Math.min(shortestTimeUnsynced, stats.duration);
+            }
         }
-        if (BuildConfig.DEBUG)
-            Log.d(StatsState.class.getSimpleName(), "Get Shorted Time" + (onlyUnsynced ? " (Unsynced)" : "")
-                    + ": considered " + numConsidered);
-        return shortestDuration;
+        minimaStale = false;
+    }
+
+    /**
+     * Recomputes the current and longest win streaks from every game, in order of start time
+     */
+    private void recomputeStreaks() {
+        currentWinStreak = 0;
+        longestWinStreak = 0;
+        final int size = gameStats.size();
+        for (int index = 0; index < size; index++) {
+            currentWinStreak = gameStats.valueAt(index).loss ? 0 : currentWinStreak + 1;
+            longestWinStreak = Math.max(longestWinStreak, currentWinStreak);
+        }
+        streaksStale = false;
     }
 
     /**
@@ -366,7 +459,7 @@ public class StatsState {
             final int key = other.gameStats.keyAt(index);
             // Other overwrites local stats. In almost all cases, they'll be the same as key conflicts will be near
             // impossible
-            result.gameStats.put(key, other.gameStats.get(key));
+            result.put(key, other.gameStats.get(key));
         }
         return result;
     }
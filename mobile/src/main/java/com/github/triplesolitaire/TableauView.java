@@ -0,0 +1,459 @@
+package com.github.triplesolitaire;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
+import android.annotation.SuppressLint;
+import android.content.ClipData;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Point;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.util.AttributeSet;
+import android.util.Log;
+import android.view.DragEvent;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.github.triplesolitaire.engine.Cards;
+import com.github.triplesolitaire.engine.Game;
+import com.github.triplesolitaire.engine.Move;
+
+/**
+ * Single view drawing every lane, including the stacks and cascades, onto one Canvas. An alternative to the Lane views
+ * (with one child view per card) which hit-tests touches and drops against the card positions instead, so that deep
+ * cascades add no views to measure and lay out
+ */
+public class TableauView extends View {
+    /**
+     * Drag shadow showing a single card, held where it was touched
+     */
+    private class CardShadowBuilder extends View.DragShadowBuilder {
+        /**
+         * Card shown by the shadow
+         */
+        private final int card;
+        /**
+         * Location of the touch point within the card
+         */
+        private final int touchX, touchY;
+
+        /**
+         * Creates a new shadow of the given card
+         *
+         * @param card   Card shown by the shadow
+         * @param touchX Horizontal location of the touch point within the card
+         * @param touchY Vertical location of the touch point within the card
+         */
+        CardShadowBuilder(final int card, final int touchX, final int touchY) {
+            this.card = card;
+            this.touchX = touchX;
+            this.touchY = touchY;
+        }
+
+        /**
+         * Draws the card
+         *
+         * @see android.view.View.DragShadowBuilder#onDrawShadow(android.graphics.Canvas)
+         */
+        @Override
+        public void onDrawShadow(final Canvas canvas) {
+            final Drawable drawable = getFaceDrawable(card);
+            drawable.setBounds(0, 0, cardWidth, cardHeight);
+            drawable.draw(canvas);
+        }
+
+        /**
+         * Sizes the shadow as a single card
+         *
+         * @see android.view.View.DragShadowBuilder#onProvideShadowMetrics(android.graphics.Point,
+         * android.graphics.Point)
+         */
+        @Override
+        public void onProvideShadowMetrics(final Point shadowSize, final Point shadowTouchPoint) {
+            shadowSize.set(cardWidth, cardHeight);
+            shadowTouchPoint.set(touchX, touchY);
+        }
+    }
+
+    /**
+     * Alpha of a hinted card at the faintest point of the hint
+     */
+    private static final int HINT_ALPHA = 64;
+    /**
+     * Duration of fading a hinted card out (and again back in), in milliseconds
+     */
+    private static final int HINT_DURATION = 250;
+    /**
+     * Number of lanes
+     */
+    private static final int LANE_COUNT = 13;
+    /**
+     * Logging tag
+     */
+    private static final String TAG = "TableauView";
+    /**
+     * Lanes accepting the current drag, indexed from 0
+     */
+    private final boolean[] acceptDrops = new boolean[TableauView.LANE_COUNT];
+    /**
+     * Card back image, shown for each card of a stack
+     */
+    private final Drawable backDrawable;
+    /**
+     * Margin around each lane
+     */
+    private final int betweenCard;
+    /**
+     * Height of a card
+     */
+    private final int cardHeight;
+    /**
+     * Vertical offset of each card below the card it covers
+     */
+    private final int cardOverlap;
+    /**
+     * Width of a card
+     */
+    private final int cardWidth;
+    /**
+     * Cards in the cascade of each lane (indexed from 0), where the first card is the bottom card of the cascade. Only
+     * the first cascadeSizes cards are in the cascade
+     */
+    private final int[][] cascades = new int[TableauView.LANE_COUNT][16];
+    /**
+     * Current size of the cascade of each lane, indexed from 0
+     */
+    private final int[] cascadeSizes = new int[TableauView.LANE_COUNT];
+    /**
+     * Card images, indexed by face and loaded on first use
+     */
+    private final Drawable[] faceDrawables = new Drawable[Cards.FACE_COUNT];
+    /**
+     * One based index of the lane whose top stack card was touched, to be flipped over if the touch ends on it, or 0
+     * if there is none
+     */
+    private int flipLaneId = 0;
+    /**
+     * Callback to the game state
+     */
+    private GameState gameState;
+    /**
+     * Current alpha of the hinted card
+     */
+    private int hintAlpha = 255;
+    /**
+     * Index (counting from the bottom of the stack) of the hinted card of the hinted lane
+     */
+    private int hintCardIndex;
+    /**
+     * One based index of the lane holding the hinted card, or 0 if there is no hint being shown
+     */
+    private int hintLaneId = 0;
+    /**
+     * Empty lane image, shown under each lane
+     */
+    private final Drawable laneDrawable;
+    /**
+     * Current size of the stack of each lane, indexed from 0
+     */
+    private final int[] stackSizes = new int[TableauView.LANE_COUNT];
+
+    /**
+     * Creates a new TableauView, with every lane empty
+     *
+     * @param context Context to create the View
+     * @param attrs   AttributeSet to create the View
+     */
+    @SuppressWarnings("deprecation")
+    public TableauView(final Context context, final AttributeSet attrs) {
+        super(context, attrs);
+        betweenCard = getResources().getDimensionPixelSize(R.dimen.between_card_dim);
+        cardHeight = getResources().getDimensionPixelSize(R.dimen.card_height_dim);
+        cardOverlap = getResources().getDimensionPixelSize(R.dimen.card_vert_overlap_dim);
+        cardWidth = getResources().getDimensionPixelSize(R.dimen.card_width_dim);
+        backDrawable = getResources().getDrawable(R.drawable.back);
+        laneDrawable = getResources().getDrawable(R.drawable.lane);
+    }
+
+    /**
+     * Gets the number of cards shown in the given lane, including both the stack and the cascade
+     *
+     * @param laneId One based index of the lane
+     * @return The number of cards in the lane
+     */
+    private int getCardCount(final int laneId) {
+        return stackSizes[laneId - 1] + cascadeSizes[laneId - 1];
+    }
+
+    /**
+     * Hit-tests the card of the given lane at the given vertical location
+     *
+     * @param laneId One based index of the lane
+     * @param y      Vertical location, relative to this view
+     * @return The index (counting from the bottom of the stack) of the uppermost card at that location, or -1 if there
+     * is no card there
+     */
+    private int getCardIndexAt(final int laneId, final float y) {
+        for (int cardIndex = getCardCount(laneId) - 1; cardIndex >= 0; cardIndex--) {
+            final int top = getCardTop(cardIndex);
+            if (y >= top && y < top + cardHeight)
+                return cardIndex;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the top of the given card of any lane
+     *
+     * @param cardIndex Index of the card, counting from the bottom of the stack
+     * @return The top of the card, relative to this view
+     */
+    private int getCardTop(final int cardIndex) {
+        return getPaddingTop() + betweenCard + cardIndex * cardOverlap;
+    }
+
+    /**
+     * Gets the image of the given card, loading it on first use
+     *
+     * @param card Card to get the image of
+     * @return The image of the card's face
+     */
+    Drawable getFaceDrawable(final int card) {
+        final int face = Cards.getFace(card);
+        if (faceDrawables[face] == null)
+            faceDrawables[face] = CardAtlas.getDrawable(getContext(), card);
+        return faceDrawables[face];
+    }
+
+    /**
+     * Hit-tests the lane at the given horizontal location
+     *
+     * @param x Horizontal location, relative to this view
+     * @return The one based index of the lane at that location, or 0 if the location is not over a lane
+     */
+    private int getLaneIdAt(final float x) {
+        final float laneX = x - getPaddingLeft();
+        if (laneX < 0)
+            return 0;
+        final int laneIndex = (int) (laneX / (cardWidth + 2 * betweenCard));
+        final float cardX = laneX - laneIndex * (cardWidth + 2 * betweenCard);
+        if (laneIndex >= TableauView.LANE_COUNT || cardX < betweenCard || cardX >= betweenCard + cardWidth)
+            return 0;
+        return laneIndex + 1;
+    }
+
+    /**
+     * Gets the left of the cards of the given lane
+     *
+     * @param laneId One based index of the lane
+     * @return The left of the lane's cards, relative to this view
+     */
+    private int getLaneLeft(final int laneId) {
+        return getPaddingLeft() + (laneId - 1) * (cardWidth + 2 * betweenCard) + betweenCard;
+    }
+
+    /**
+     * Gets the location of the top (i.e., not covered by any other cards) card of the given lane, or of the empty lane
+     * if it has no cards
+     *
+     * @param laneId One based index of the lane
+     * @return The location of the top card, relative to this view
+     */
+    public Point getTopCardLocation(final int laneId) {
+        return new Point(getLaneLeft(laneId), getCardTop(Math.max(0, getCardCount(laneId) - 1)));
+    }
+
+    /**
+     * Responds to drag events of cascades, accepting drops over a lane given the right card. If the user drops a
+     * cascade back over its own lane, attempts to auto move it to the foundation
+     *
+     * @see android.view.View#onDragEvent(android.view.DragEvent)
+     */
+    @Override
+    public boolean onDragEvent(final DragEvent event) {
+        final int from = (Integer) event.getLocalState();
+        if (event.getAction() == DragEvent.ACTION_DRAG_STARTED) {
+            String cardData = event.getClipDescription().getLabel().toString();
+            // Take off MULTI prefix - we accept all cascades based on the
+            // bottom card alone
+            if (cardData.startsWith("MULTI"))
+                cardData = cardData.substring(5, cardData.indexOf(';'));
+            final int card = Integer.parseInt(cardData);
+            for (int laneId = 1; laneId <= TableauView.LANE_COUNT; laneId++) {
+                acceptDrops[laneId - 1] = laneId != from && (cascadeSizes[laneId - 1] == 0
+                        ? Game.acceptLaneDrop(laneId, card) : gameState.acceptCascadeDrop(laneId, card));
+                if (acceptDrops[laneId - 1] && BuildConfig.DEBUG)
+                    Log.d(TableauView.TAG, "Drag -> " + laneId + ": Acceptable drag of " + Cards.getName(card));
+            }
+            return true;
+        } else if (event.getAction() == DragEvent.ACTION_DROP) {
+            final int laneId = getLaneIdAt(event.getX());
+            if (laneId == 0 || laneId != from && !acceptDrops[laneId - 1])
+                return false;
+            if (Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT)
+                System.gc();
+            if (laneId == from)
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        gameState.attemptAutoMoveFromCascadeToFoundation(laneId);
+                    }
+                });
+            else {
+                final String card = event.getClipData().getItemAt(0).getText().toString();
+                gameState.move(new Move(Move.Type.PLAYER_MOVE, laneId, from, card));
+            }
+            return true;
+        }
+        return true;
+    }
+
+    /**
+     * Draws every lane, then its stack and cascade
+     *
+     * @see android.view.View#onDraw(android.graphics.Canvas)
+     */
+    @Override
+    protected void onDraw(final Canvas canvas) {
+        for (int laneId = 1; laneId <= TableauView.LANE_COUNT; laneId++) {
+            final int left = getLaneLeft(laneId);
+            final int stackSize = stackSizes[laneId - 1];
+            laneDrawable.setBounds(left, getCardTop(0), left + cardWidth, getCardTop(0) + cardHeight);
+            laneDrawable.draw(canvas);
+            for (int cardIndex = 0; cardIndex < getCardCount(laneId); cardIndex++) {
+                final Drawable drawable = cardIndex < stackSize ? backDrawable
+                        : getFaceDrawable(cascades[laneId - 1][cardIndex - stackSize]);
+                final int top = getCardTop(cardIndex);
+                final boolean hinted = laneId == hintLaneId && cardIndex == hintCardIndex;
+                if (hinted)
+                    drawable.setAlpha(hintAlpha);
+                drawable.setBounds(left, top, left + cardWidth, top + cardHeight);
+                drawable.draw(canvas);
+                if (hinted)
+                    drawable.setAlpha(255);
+            }
+        }
+    }
+
+    /**
+     * Sizes this view to fit every lane side by side, as tall as the lane with the most cards
+     *
+     * @see android.view.View#onMeasure(int, int)
+     */
+    @Override
+    protected void onMeasure(final int widthMeasureSpec, final int heightMeasureSpec) {
+        int maxCardCount = 1;
+        for (int laneId = 1; laneId <= TableauView.LANE_COUNT; laneId++)
+            maxCardCount = Math.max(maxCardCount, getCardCount(laneId));
+        final int width = getPaddingLeft() + TableauView.LANE_COUNT * (cardWidth + 2 * betweenCard)
+                + getPaddingRight();
+        final int height = getCardTop(maxCardCount - 1) + cardHeight + betweenCard + getPaddingBottom();
+        setMeasuredDimension(View.resolveSize(width, widthMeasureSpec), View.resolveSize(height, heightMeasureSpec));
+    }
+
+    /**
+     * Starts dragging a cascade when one of its cards is touched, and flips over the top card of a stack when it is
+     * tapped
+     *
+     * @see android.view.View#onTouchEvent(android.view.MotionEvent)
+     */
+    @SuppressLint("ClickableViewAccessibility")
+    @Override
+    public boolean onTouchEvent(final MotionEvent event) {
+        final int laneId = getLaneIdAt(event.getX());
+        final int cardIndex = laneId == 0 ? -1 : getCardIndexAt(laneId, event.getY());
+        switch (event.getAction()) {
+            case MotionEvent.ACTION_DOWN:
+                if (cardIndex < 0)
+                    return false;
+                final int stackSize = stackSizes[laneId - 1];
+                if (cardIndex >= stackSize) {
+                    final int cascadeIndex = cardIndex - stackSize;
+                    final String cascadeData = gameState.buildCascadeString(laneId,
+                            cascadeSizes[laneId - 1] - cascadeIndex);
+                    final ClipData dragData = ClipData.newPlainText((cascadeIndex + 1 != cascadeSizes[laneId - 1]
+                            ? "MULTI" : "") + cascadeData, cascadeData);
+                    final int touchX = (int) event.getX() - getLaneLeft(laneId);
+                    final int touchY = (int) event.getY() - getCardTop(cardIndex);
+                    return startDrag(dragData, new CardShadowBuilder(cascades[laneId - 1][cascadeIndex], touchX,
+                            touchY), laneId, 0);
+                }
+                if (cardIndex != stackSize - 1 || cascadeSizes[laneId - 1] != 0)
+                    return false;
+                flipLaneId = laneId;
+                return true;
+            case MotionEvent.ACTION_UP:
+                if (flipLaneId != 0 && laneId == flipLaneId && cardIndex == stackSizes[laneId - 1] - 1)
+                    gameState.move(new Move(Move.Type.FLIP, laneId));
+                flipLaneId = 0;
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                flipLaneId = 0;
+                return true;
+            default:
+                return flipLaneId != 0;
+        }
+    }
+
+    /**
+     * Setter for the game state
+     *
+     * @param gameState Game state for call backs
+     */
+    public void setGameState(final GameState gameState) {
+        this.gameState = gameState;
+    }
+
+    /**
+     * Shows a hint by fading the given card of the given lane out and back in
+     *
+     * @param laneId One based index of the lane
+     * @param depth  Number of cards covering the hinted card, where 0 hints the top card
+     */
+    public void showHint(final int laneId, final int depth) {
+        hintLaneId = laneId;
+        hintCardIndex = getCardCount(laneId) - 1 - depth;
+        final ValueAnimator hintAnimator = ValueAnimator.ofInt(255, TableauView.HINT_ALPHA);
+        hintAnimator.setDuration(TableauView.HINT_DURATION);
+        hintAnimator.setRepeatCount(1);
+        hintAnimator.setRepeatMode(ValueAnimator.REVERSE);
+        hintAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(final ValueAnimator animation) {
+                hintAlpha = (Integer) animation.getAnimatedValue();
+                invalidate();
+            }
+        });
+        hintAnimator.addListener(new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(final Animator animation) {
+                hintLaneId = 0;
+                hintAlpha = 255;
+                invalidate();
+            }
+        });
+        hintAnimator.start();
+    }
+
+    /**
+     * Brings the given lane up to date with the game state, redrawing it and, if its height changed, laying out this
+     * view again
+     *
+     * @param laneId One based index of the lane
+     */
+    public void sync(final int laneId) {
+        final int oldCardCount = getCardCount(laneId);
+        final int newCascadeSize = gameState.getCascadeSize(laneId);
+        if (newCascadeSize > cascades[laneId - 1].length)
+            cascades[laneId - 1] = new int[2 * newCascadeSize];
+        for (int cascadeIndex = 0; cascadeIndex < newCascadeSize; cascadeIndex++)
+            cascades[laneId - 1][cascadeIndex] = gameState.getCascadeCard(laneId, cascadeIndex);
+        cascadeSizes[laneId - 1] = newCascadeSize;
+        stackSizes[laneId - 1] = gameState.getStackSize(laneId);
+        if (getCardCount(laneId) != oldCardCount)
+            requestLayout();
+        invalidate();
+    }
+}
@@ -6,20 +6,17 @@ import android.app.AlertDialog;
 import android.app.Dialog;
 import android.app.LoaderManager.LoaderCallbacks;
 import android.content.AsyncQueryHandler;
-import android.content.ContentProviderOperation;
 import android.content.ContentValues;
 import android.content.Context;
 import android.content.CursorLoader;
 import android.content.Intent;
 import android.content.IntentSender;
 import android.content.Loader;
-import android.content.OperationApplicationException;
 import android.database.Cursor;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.HandlerThread;
-import android.os.RemoteException;
 import android.os.UserManager;
 import android.preference.PreferenceManager;
 import android.support.annotation.NonNull;
@@ -50,7 +47,6 @@ import com.google.android.gms.games.snapshot.SnapshotMetadataChange;
 import com.google.android.gms.games.snapshot.Snapshots;
 
 import java.io.IOException;
-import java.util.ArrayList;
 
 /**
  * Main class which controls the UI of the Triple Solitaire game
@@ -83,16 +79,12 @@ public class TripleSolitaireActivity extends Activity implements LoaderCallbacks
     private Runnable mPersistStateRunnable = new Runnable() {
         @Override
         public void run() {
-            final ArrayList<ContentProviderOperation> operations = stats.getLocalSaveOperations();
+            final ContentValues[] values = stats.getLocalSaveValues();
             if (BuildConfig.DEBUG)
-                Log.d(TripleSolitaireActivity.TAG, "Persisting stats: " + operations.size() + " operations");
-            try {
-                getContentResolver().applyBatch(GameContract.AUTHORITY, operations);
-            } catch (final OperationApplicationException | RemoteException e) {
-                Log.e(StatsState.class.getSimpleName(), "Failed persisting stats", e);
-            }
+                Log.d(TripleSolitaireActivity.TAG, "Persisting stats: " + values.length + " games");
+            final int count = getContentResolver().bulkInsert(GameContract.Games.CONTENT_URI, values);
             if (BuildConfig.DEBUG)
-                Log.d(TripleSolitaireActivity.TAG, "Persisting stats completed");
+                Log.d(TripleSolitaireActivity.TAG, "Persisting stats completed: " + count + " games saved");
             runOnUiThread(new Runnable() {
                 @Override
                 public void run() {
@@ -108,6 +100,28 @@ public class TripleSolitaireActivity extends Activity implements LoaderCallbacks
         startActivityForResult(new Intent(this, GameActivity.class), REQUEST_GAME);
     }
 
+    /**
+     * Starts a game of the given deal
+     *
+     * @param deal Deal number to play
+     */
+    public void playDeal(final long deal) {
+        final Intent intent = new Intent(this, GameActivity.class);
+        intent.putExtra(GameActivity.EXTRA_DEAL, deal);
+        startActivityForResult(intent, REQUEST_GAME);
+    }
+
+    /**
+     * Replays the given won game
+     *
+     * @param gameId Id of the won game, as determined by the GameProvider
+     */
+    public void replayGame(final long gameId) {
+        final Intent intent = new Intent(this, GameActivity.class);
+        intent.putExtra(GameActivity.EXTRA_REPLAY_GAME_ID, gameId);
+        startActivity(intent);
+    }
+
     private synchronized void incrementAchievements(final AchievementBuffer buffer) {
         final String win10 = getString(R.string.achievement_getting_good);
         final String win100 = getString(R.string.achievement_so_youve_played_triple_solitaire);
@@ -220,7 +234,14 @@ public class TripleSolitaireActivity extends Activity implements LoaderCallbacks
         statsBtn.setOnClickListener(new OnClickListener() {
             @Override
             public void onClick(final View v) {
-                StatsDialogFragment.createInstance(stats).show(getFragmentManager(), "stats");
+                StatsDialogFragment.createInstance().show(getFragmentManager(), "stats");
+            }
+        });
+        final Button playDealBtn = findViewById(R.id.play_deal);
+        playDealBtn.setOnClickListener(new OnClickListener() {
+            @Override
+            public void onClick(final View v) {
+                new PlayDealDialogFragment().show(getFragmentManager(), "play_deal");
             }
         });
         // Set up sign in button
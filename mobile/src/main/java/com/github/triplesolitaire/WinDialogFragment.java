@@ -13,6 +13,7 @@ import android.os.Bundle;
 public class WinDialogFragment extends DialogFragment {
     private static final String GAME_WIN_TIME = "GAME_WIN_TIME";
     private static final String GAME_WIN_MOVE_COUNT = "GAME_WIN_MOVE_COUNT";
+    private static final String GAME_WIN_GAME_ID = "GAME_WIN_GAME_ID";
 
     /**
      * Create a new Intent which can be passed via setResult(int requestCode, Intent data) to eventually create a
@@ -20,12 +21,14 @@ public class WinDialogFragment extends DialogFragment {
      *
      * @param time      time of the winning game
      * @param moveCount move count of the winning game
+     * @param gameId    id of the winning game, or -1 if it is not yet known
      * @return Intent suitable for setResult(int requestCode, Intent data)
      */
-    public static Intent createDataIntent(CharSequence time, int moveCount) {
+    public static Intent createDataIntent(CharSequence time, int moveCount, long gameId) {
         Intent data = new Intent();
         data.putExtra(GAME_WIN_TIME, time);
         data.putExtra(GAME_WIN_MOVE_COUNT, moveCount);
+        data.putExtra(GAME_WIN_GAME_ID, gameId);
         return data;
     }
 
@@ -40,6 +43,7 @@ public class WinDialogFragment extends DialogFragment {
         Bundle args = new Bundle();
         args.putCharSequence(GAME_WIN_TIME, data.getCharSequenceExtra(GAME_WIN_TIME));
         args.putInt(GAME_WIN_MOVE_COUNT, data.getIntExtra(GAME_WIN_MOVE_COUNT, 0));
+        args.putLong(GAME_WIN_GAME_ID, data.getLongExtra(GAME_WIN_GAME_ID, -1));
         winDialogFragment.setArguments(args);
         return winDialogFragment;
     }
@@ -49,6 +53,7 @@ public class WinDialogFragment extends DialogFragment {
         final TripleSolitaireActivity activity = (TripleSolitaireActivity) getActivity();
         final CharSequence time = getArguments().getCharSequence(GAME_WIN_TIME);
         final int moveCount = getArguments().getInt(GAME_WIN_MOVE_COUNT);
+        final long gameId = getArguments().getLong(GAME_WIN_GAME_ID);
         final String message = getString(R.string.win_dialog, time, moveCount);
         final AlertDialog.Builder builder = new AlertDialog.Builder(activity);
         builder.setMessage(message).setCancelable(false)
@@ -64,6 +69,14 @@ public class WinDialogFragment extends DialogFragment {
                 dialog.dismiss();
             }
         });
+        if (gameId >= 0)
+            builder.setNeutralButton(getString(R.string.replay), new DialogInterface.OnClickListener() {
+                @Override
+                public void onClick(final DialogInterface dialog, final int dialogId) {
+                    dialog.dismiss();
+                    activity.replayGame(gameId);
+                }
+            });
         return builder.create();
     }
 }
@@ -25,6 +25,13 @@ public final class GameContract {
          * </P>
          */
         public static final String COLUMN_NAME_SYNCED = "synced";
+        /**
+         * Column name of the game's deal number, which deterministically determines the layout of the cards
+         * <p/>
+         * Type: INTEGER (long)
+         * </P>
+         */
+        public static final String COLUMN_NAME_DEAL = "deal";
         /**
          * Column name for the game's duration (in seconds) to completion
          * <p/>
@@ -39,6 +46,14 @@ public final class GameContract {
          * </P>
          */
         public static final String COLUMN_NAME_MOVES = "moves";
+        /**
+         * Column name of the moves of a won game, encoded with SavedGame.toByteArray, for replaying the game. Only
+         * available when querying a single game
+         * <p/>
+         * Type: BLOB
+         * </P>
+         */
+        public static final String COLUMN_NAME_REPLAY = "replay";
         /**
          * Column name of the game's start time
          * <p/>
@@ -79,6 +94,128 @@ public final class GameContract {
         }
     }
 
+    /**
+     * Games summary contract. The summary is a single row of aggregates over every game, computed by the database so
+     * that no game rows need to be read to show them
+     */
+    public static final class GamesSummary {
+        /**
+         * Column name of the average duration (in seconds) of won games, null if no game was won
+         * <p/>
+         * Type: REAL
+         * </P>
+         */
+        public static final String COLUMN_NAME_AVERAGE_DURATION = "average_duration";
+        /**
+         * Column name of the average number of moves of won games, null if no game was won
+         * <p/>
+         * Type: REAL
+         * </P>
+         */
+        public static final String COLUMN_NAME_AVERAGE_MOVES = "average_moves";
+        /**
+         * Column name of the number of games played
+         * <p/>
+         * Type: INTEGER
+         * </P>
+         */
+        public static final String COLUMN_NAME_GAMES_PLAYED = "games_played";
+        /**
+         * Column name of the number of games won
+         * <p/>
+         * Type: INTEGER
+         * </P>
+         */
+        public static final String COLUMN_NAME_GAMES_WON = "games_won";
+        /**
+         * Column name of the longest number of games won in a row, ordered by start time
+         * <p/>
+         * Type: INTEGER
+         * </P>
+         */
+        public static final String COLUMN_NAME_LONGEST_WIN_STREAK = "longest_win_streak";
+        /**
+         * Column name of the minimum number of moves of won games, null if no game was won
+         * <p/>
+         * Type: INTEGER
+         * </P>
+         */
+        public static final String COLUMN_NAME_MINIMUM_MOVES = "minimum_moves";
+        /**
+         * Column name of the shortest duration (in seconds) of won games, null if no game was won
+         * <p/>
+         * Type: INTEGER
+         * </P>
+         */
+        public static final String COLUMN_NAME_SHORTEST_TIME = "shortest_time";
+        /**
+         * The MIME type of {@link #CONTENT_URI} providing the single summary row.
+         */
+        public static final String CONTENT_ITEM_TYPE =
+                "vnd.android.cursor.item/vnd.ianhanniballake.solitairegamessummary";
+        /**
+         * The content:// style URL for the summary. Cursors over the summary are notified of changes to any game
+         */
+        public static final Uri CONTENT_URI = Uri.parse(SCHEME + AUTHORITY + "/" + Games.TABLE_NAME + "/summary");
+
+        /**
+         * This class cannot be instantiated
+         */
+        private GamesSummary() {
+        }
+    }
+
+    /**
+     * Journal table contract. The journal holds every move of the game in progress (and every jump along its undo/redo
+     * timeline), in the order they were made, so that the game can be resumed by replaying them against its deal
+     */
+    public static final class Journal implements BaseColumns {
+        /**
+         * The table name offered by this provider
+         */
+        public static final String TABLE_NAME = "journal";
+        /**
+         * Column name of the deal number of the game the move was made in
+         * <p/>
+         * Type: INTEGER (long)
+         * </P>
+         */
+        public static final String COLUMN_NAME_DEAL = "deal";
+        /**
+         * Column name of the move, encoded with SavedGame.moveToByteArray, or of the jump, encoded with
+         * SavedGame.jumpToByteArray
+         * <p/>
+         * Type: BLOB
+         * </P>
+         */
+        public static final String COLUMN_NAME_MOVE = "move";
+        /**
+         * Column name of the game time (in seconds) when the move was made
+         * <p/>
+         * Type: INTEGER
+         * </P>
+         */
+        public static final String COLUMN_NAME_TIME = "time";
+        /**
+         * The MIME type of {@link #CONTENT_URI} providing a directory of journal moves.
+         */
+        public static final String CONTENT_TYPE = "vnd.android.cursor.dir/vnd.ianhanniballake.solitairejournal";
+        /**
+         * The content:// style URL for this table
+         */
+        public static final Uri CONTENT_URI = Uri.parse(SCHEME + AUTHORITY + "/journal");
+        /**
+         * The default sort order for this table: the order the moves were made
+         */
+        public static final String DEFAULT_SORT_ORDER = BaseColumns._ID + " ASC";
+
+        /**
+         * This class cannot be instantiated
+         */
+        private Journal() {
+        }
+    }
+
     /**
      * Base authority for this content provider
      */
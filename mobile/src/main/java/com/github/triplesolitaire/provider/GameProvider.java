@@ -14,6 +14,7 @@ import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
 import android.database.sqlite.SQLiteQueryBuilder;
+import android.database.sqlite.SQLiteStatement;
 import android.net.Uri;
 import android.provider.BaseColumns;
 import android.support.annotation.NonNull;
@@ -23,6 +24,7 @@ import android.util.Log;
 import com.github.triplesolitaire.BuildConfig;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 
@@ -34,6 +36,35 @@ public class GameProvider extends ContentProvider {
      * This class helps open, create, and upgrade the database file.
      */
     static class DatabaseHelper extends SQLiteOpenHelper {
+        /**
+         * Creates the secondary indexes of the games table: synced, for finding the games still to sync. The start time
+         * is already indexed by its UNIQUE constraint, which backs both the conflict lookup on insert and the ordered
+         * queries
+         *
+         * @param db Database to create the indexes in
+         */
+        private static void createGamesIndexes(final SQLiteDatabase db) {
+            if (BuildConfig.DEBUG)
+                Log.d(GameProvider.TAG, "Creating the " + GameContract.Games.TABLE_NAME + " indexes");
+            db.execSQL("CREATE INDEX IF NOT EXISTS " + GameContract.Games.TABLE_NAME + "_"
+                    + GameContract.Games.COLUMN_NAME_SYNCED + " ON " + GameContract.Games.TABLE_NAME + " ("
+                    + GameContract.Games.COLUMN_NAME_SYNCED + ");");
+        }
+
+        /**
+         * Creates the journal table, with table name and column names taken from the GameContract class
+         *
+         * @param db Database to create the table in
+         */
+        private static void createJournalTable(final SQLiteDatabase db) {
+            if (BuildConfig.DEBUG)
+                Log.d(GameProvider.TAG, "Creating the " + GameContract.Journal.TABLE_NAME + " table");
+            db.execSQL("CREATE TABLE " + GameContract.Journal.TABLE_NAME + " (" + BaseColumns._ID
+                    + " INTEGER PRIMARY KEY AUTOINCREMENT," + GameContract.Journal.COLUMN_NAME_DEAL + " INTEGER,"
+                    + GameContract.Journal.COLUMN_NAME_MOVE + " BLOB," + GameContract.Journal.COLUMN_NAME_TIME
+                    + " INTEGER" + ");");
+        }
+
         /**
          * Creates a new DatabaseHelper
          *
@@ -54,17 +85,32 @@ public class GameProvider extends ContentProvider {
                     + " INTEGER PRIMARY KEY AUTOINCREMENT," + GameContract.Games.COLUMN_NAME_START_TIME + " INTEGER,"
                     + GameContract.Games.COLUMN_NAME_DURATION + " INTEGER," + GameContract.Games.COLUMN_NAME_MOVES
                     + " INTEGER," + GameContract.Games.COLUMN_NAME_SYNCED + " INTEGER, "
-                    + "UNIQUE(" + GameContract.Games.COLUMN_NAME_START_TIME + ")" + ");");
+                    + GameContract.Games.COLUMN_NAME_DEAL + " INTEGER, " + GameContract.Games.COLUMN_NAME_REPLAY
+                    + " BLOB, " + "UNIQUE(" + GameContract.Games.COLUMN_NAME_START_TIME + ")" + ");");
+            DatabaseHelper.createGamesIndexes(db);
+            DatabaseHelper.createJournalTable(db);
         }
 
         /**
-         * Demonstrates that the provider must consider what happens when the underlying database is changed. Note that
-         * this currently just destroys and recreates the database - should upgrade in place
+         * Enables write-ahead logging, so that reads (such as the stats loaders) no longer wait on writes (such as the
+         * journal appended on every move) and each write does not need to sync a rollback journal
+         *
+         * @see android.database.sqlite.SQLiteOpenHelper#onOpen(android.database.sqlite.SQLiteDatabase)
+         */
+        @Override
+        public void onOpen(final SQLiteDatabase db) {
+            super.onOpen(db);
+            if (!db.isReadOnly())
+                db.enableWriteAheadLogging();
+        }
+
+        /**
+         * Upgrades the database in place, applying each schema change made since the old version in turn
          */
         @Override
         public void onUpgrade(final SQLiteDatabase db, final int oldVersion, final int newVersion) {
             Log.w(GameProvider.TAG, "Upgrading database from version " + oldVersion + " to " + newVersion);
-            if (oldVersion == 1) {
+            if (oldVersion < 2) {
                 String tempTableName = "temp";
                 db.execSQL("ALTER TABLE " + GameContract.Games.TABLE_NAME + " RENAME TO " + tempTableName);
                 // Adds SYNCED column and UNIQUE on START_TIME
@@ -73,31 +119,111 @@ public class GameProvider extends ContentProvider {
                         + " INTEGER," + GameContract.Games.COLUMN_NAME_DURATION + " INTEGER, "
                         + GameContract.Games.COLUMN_NAME_MOVES + " INTEGER," + GameContract.Games.COLUMN_NAME_SYNCED
                         + " INTEGER, " + "UNIQUE(" + GameContract.Games.COLUMN_NAME_START_TIME + ")" + ");");
-                Cursor tempCursor = db.query(tempTableName, null, null, null, null, null,
-                        GameContract.Games.COLUMN_NAME_START_TIME);
-                while (tempCursor.moveToNext()) {
-                    ContentValues values = new ContentValues();
-                    final long startTime = tempCursor.getLong(tempCursor.getColumnIndex(
-                            GameContract.Games.COLUMN_NAME_START_TIME));
-                    values.put(GameContract.Games.COLUMN_NAME_START_TIME, startTime);
-                    final int durationColumnIndex = tempCursor.getColumnIndex(GameContract.Games.COLUMN_NAME_DURATION);
-                    if (tempCursor.isNull(durationColumnIndex) || tempCursor.getInt(durationColumnIndex) == 0 ) {
-                        values.putNull(GameContract.Games.COLUMN_NAME_DURATION);
-                        values.putNull(GameContract.Games.COLUMN_NAME_MOVES);
-                    } else {
-                        final int duration = tempCursor.getInt(durationColumnIndex);
-                        values.put(GameContract.Games.COLUMN_NAME_DURATION, duration);
-                        final int moves = tempCursor.getInt(tempCursor.getColumnIndex(
-                                GameContract.Games.COLUMN_NAME_MOVES));
-                        values.put(GameContract.Games.COLUMN_NAME_MOVES, moves);
-                    }
-                    values.put(GameContract.Games.COLUMN_NAME_SYNCED, false);
-                    db.insertWithOnConflict(GameContract.Games.TABLE_NAME, GameContract.Games.COLUMN_NAME_START_TIME,
-                            values, SQLiteDatabase.CONFLICT_REPLACE);
-                }
-                tempCursor.close();
+                // Copies every game in a single statement, clearing the duration and moves of lost games
+                final String duration = GameContract.Games.COLUMN_NAME_DURATION;
+                db.execSQL("INSERT OR REPLACE INTO " + GameContract.Games.TABLE_NAME + " ("
+                        + GameContract.Games.COLUMN_NAME_START_TIME + ", " + duration + ", "
+                        + GameContract.Games.COLUMN_NAME_MOVES + ", " + GameContract.Games.COLUMN_NAME_SYNCED
+                        + ") SELECT " + GameContract.Games.COLUMN_NAME_START_TIME + ", NULLIF(" + duration
+                        + ", 0), CASE WHEN IFNULL(" + duration + ", 0) = 0 THEN NULL ELSE "
+                        + GameContract.Games.COLUMN_NAME_MOVES + " END, 0 FROM " + tempTableName + " ORDER BY "
+                        + GameContract.Games.COLUMN_NAME_START_TIME);
                 db.execSQL("DROP TABLE " + tempTableName);
             }
+            if (oldVersion < 3)
+                // Adds DEAL column. Existing games have no known deal
+                db.execSQL("ALTER TABLE " + GameContract.Games.TABLE_NAME + " ADD COLUMN "
+                        + GameContract.Games.COLUMN_NAME_DEAL + " INTEGER");
+            if (oldVersion < 4)
+                DatabaseHelper.createJournalTable(db);
+            if (oldVersion < 5)
+                // Adds REPLAY column. Existing games have no saved moves
+                db.execSQL("ALTER TABLE " + GameContract.Games.TABLE_NAME + " ADD COLUMN "
+                        + GameContract.Games.COLUMN_NAME_REPLAY + " BLOB");
+            if (oldVersion < 6)
+                DatabaseHelper.createGamesIndexes(db);
+        }
+    }
+
+    /**
+     * Inserts games, updating the game started at the same time instead where there is one, through statements compiled
+     * once for each set of columns given rather than once per game. Must be closed after use
+     */
+    private static class GameUpserter {
+        /**
+         * Database to write the games to
+         */
+        private final SQLiteDatabase db;
+        /**
+         * Compiled insert statements, by their comma separated (sorted) columns
+         */
+        private final HashMap<String, SQLiteStatement> insertStatements = new HashMap<>();
+        /**
+         * Compiled update statements, by their comma separated (sorted) columns
+         */
+        private final HashMap<String, SQLiteStatement> updateStatements = new HashMap<>();
+
+        /**
+         * Creates a new GameUpserter
+         *
+         * @param db Database to write the games to
+         */
+        GameUpserter(final SQLiteDatabase db) {
+            this.db = db;
+        }
+
+        /**
+         * Closes every compiled statement
+         */
+        void close() {
+            for (final SQLiteStatement statement : insertStatements.values())
+                statement.close();
+            for (final SQLiteStatement statement : updateStatements.values())
+                statement.close();
+        }
+
+        /**
+         * Inserts the given game or, if a game with the same start time exists, updates it with the given values
+         *
+         * @param values Values of the game, which must include its start time
+         * @return Whether a game was inserted or updated
+         */
+        boolean upsert(final ContentValues values) {
+            final String[] columns = values.keySet().toArray(new String[values.size()]);
+            Arrays.sort(columns);
+            final String key = TextUtils.join(",", columns);
+            SQLiteStatement insert = insertStatements.get(key);
+            if (insert == null) {
+                final String[] placeholders = new String[columns.length];
+                Arrays.fill(placeholders, "?");
+                insert = db.compileStatement("INSERT OR IGNORE INTO " + GameContract.Games.TABLE_NAME + " (" + key
+                        + ") VALUES (" + TextUtils.join(",", placeholders) + ")");
+                insertStatements.put(key, insert);
+            }
+            for (int index = 0; index < columns.length; index++)
+                DatabaseUtils.bindObjectToProgram(insert, index + 1, values.get(columns[index]));
+            if (insert.executeInsert() != -1)
+                return true;
+            if (columns.length == 1)
+                // Only the start time was given, so there is nothing to update
+                return false;
+            SQLiteStatement update = updateStatements.get(key);
+            if (update == null) {
+                final StringBuilder sql = new StringBuilder("UPDATE " + GameContract.Games.TABLE_NAME + " SET ");
+                for (final String column : columns)
+                    if (!column.equals(GameContract.Games.COLUMN_NAME_START_TIME))
+                        sql.append(column).append("=?,");
+                sql.setCharAt(sql.length() - 1, ' ');
+                sql.append("WHERE " + GameContract.Games.COLUMN_NAME_START_TIME + "=?");
+                update = db.compileStatement(sql.toString());
+                updateStatements.put(key, update);
+            }
+            int index = 1;
+            for (final String column : columns)
+                if (!column.equals(GameContract.Games.COLUMN_NAME_START_TIME))
+                    DatabaseUtils.bindObjectToProgram(update, index++, values.get(column));
+            DatabaseUtils.bindObjectToProgram(update, index, values.get(GameContract.Games.COLUMN_NAME_START_TIME));
+            return update.executeUpdateDelete() > 0;
         }
     }
 
@@ -108,7 +234,7 @@ public class GameProvider extends ContentProvider {
     /**
      * The database version
      */
-    private static final int DATABASE_VERSION = 2;
+    private static final int DATABASE_VERSION = 6;
     /**
      * The incoming URI matches the Game ID URI pattern
      */
@@ -117,6 +243,14 @@ public class GameProvider extends ContentProvider {
      * The incoming URI matches the Games URI pattern
      */
     private static final int GAMES = 1;
+    /**
+     * The incoming URI matches the Journal URI pattern
+     */
+    private static final int JOURNAL = 3;
+    /**
+     * The incoming URI matches the Games Summary URI
+     */
+    private static final int SUMMARY = 4;
     /**
      * Used for debugging and logging
      */
@@ -135,13 +269,27 @@ public class GameProvider extends ContentProvider {
     private LinkedHashSet<Uri> mPendingNotificationUris = new LinkedHashSet<>();
 
 
+    /**
+     * Applies every operation inside a single transaction, sending each change notification once at the end. If any
+     * operation fails, none of them are applied
+     *
+     * @see android.content.ContentProvider#applyBatch(java.util.ArrayList)
+     */
     @Override
     public synchronized @NonNull ContentProviderResult[] applyBatch(@NonNull final ArrayList<ContentProviderOperation> operations)
     throws OperationApplicationException {
+        final SQLiteDatabase db = databaseHelper.getWritableDatabase();
         mBatchOperationOngoing = true;
         mPendingNotificationUris.clear();
-        ContentProviderResult[] results = super.applyBatch(operations);
-        mBatchOperationOngoing = false;
+        ContentProviderResult[] results;
+        db.beginTransaction();
+        try {
+            results = super.applyBatch(operations);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            mBatchOperationOngoing = false;
+        }
         for (Uri uri : mPendingNotificationUris) {
             getContext().getContentResolver().notifyChange(uri, null);
         }
@@ -161,9 +309,62 @@ public class GameProvider extends ContentProvider {
         allColumnProjectionMap.put(GameContract.Games.COLUMN_NAME_DURATION, GameContract.Games.COLUMN_NAME_DURATION);
         allColumnProjectionMap.put(GameContract.Games.COLUMN_NAME_MOVES, GameContract.Games.COLUMN_NAME_MOVES);
         allColumnProjectionMap.put(GameContract.Games.COLUMN_NAME_SYNCED, GameContract.Games.COLUMN_NAME_SYNCED);
+        allColumnProjectionMap.put(GameContract.Games.COLUMN_NAME_DEAL, GameContract.Games.COLUMN_NAME_DEAL);
         return allColumnProjectionMap;
     }
 
+    /**
+     * Creates and initializes a column projection for a single game: all columns plus the (potentially large) replay
+     * column, which is left out of queries over many games
+     *
+     * @return The single game column projection map
+     */
+    private static HashMap<String, String> buildGameIdColumnProjectionMap() {
+        final HashMap<String, String> gameIdColumnProjectionMap = GameProvider.buildAllColumnProjectionMap();
+        gameIdColumnProjectionMap.put(GameContract.Games.COLUMN_NAME_REPLAY, GameContract.Games.COLUMN_NAME_REPLAY);
+        return gameIdColumnProjectionMap;
+    }
+
+    /**
+     * Creates and initializes the projection of the games summary, mapping each summary column to the aggregate that
+     * computes it over the games table. Won games are those with a non-zero duration. The longest win streak runs a
+     * subquery per lost game (plus one past the last game), each counting the games since the previous loss: both the
+     * previous loss and the count are found along the start time index, so the whole summary is computed without
+     * reading any game rows out of the database
+     *
+     * @return The games summary projection map
+     */
+    private static HashMap<String, String> buildSummaryProjectionMap() {
+        final String games = GameContract.Games.TABLE_NAME;
+        final String startTime = GameContract.Games.COLUMN_NAME_START_TIME;
+        final String duration = GameContract.Games.COLUMN_NAME_DURATION;
+        final String moves = GameContract.Games.COLUMN_NAME_MOVES;
+        final String previousLoss = "(SELECT p." + startTime + " FROM " + games + " p WHERE p." + startTime + " < l."
+                + startTime + " AND IFNULL(p." + duration + ", 0) = 0 ORDER BY p." + startTime + " DESC LIMIT 1)";
+        final String streak = "(SELECT COUNT(*) FROM " + games + " w WHERE w." + startTime + " < l." + startTime
+                + " AND w." + startTime + " > IFNULL(" + previousLoss + ", (SELECT MIN(" + startTime + ") - 1 FROM "
+                + games + ")))";
+        final String losses = "(SELECT " + startTime + " FROM " + games + " WHERE IFNULL(" + duration
+                + ", 0) = 0 UNION ALL SELECT MAX(" + startTime + ") + 1 FROM " + games + ") l";
+        final HashMap<String, String> summaryProjectionMap = new HashMap<>();
+        summaryProjectionMap.put(GameContract.GamesSummary.COLUMN_NAME_GAMES_PLAYED, "COUNT(*) AS "
+                + GameContract.GamesSummary.COLUMN_NAME_GAMES_PLAYED);
+        summaryProjectionMap.put(GameContract.GamesSummary.COLUMN_NAME_GAMES_WON, "COUNT(NULLIF(" + duration
+                + ", 0)) AS " + GameContract.GamesSummary.COLUMN_NAME_GAMES_WON);
+        summaryProjectionMap.put(GameContract.GamesSummary.COLUMN_NAME_AVERAGE_DURATION, "AVG(NULLIF(" + duration
+                + ", 0)) AS " + GameContract.GamesSummary.COLUMN_NAME_AVERAGE_DURATION);
+        summaryProjectionMap.put(GameContract.GamesSummary.COLUMN_NAME_AVERAGE_MOVES, "AVG(CASE WHEN " + duration
+                + " > 0 THEN " + moves + " END) AS " + GameContract.GamesSummary.COLUMN_NAME_AVERAGE_MOVES);
+        summaryProjectionMap.put(GameContract.GamesSummary.COLUMN_NAME_MINIMUM_MOVES, "MIN(CASE WHEN " + duration
+                + " > 0 THEN " + moves + " END) AS " + GameContract.GamesSummary.COLUMN_NAME_MINIMUM_MOVES);
+        summaryProjectionMap.put(GameContract.GamesSummary.COLUMN_NAME_SHORTEST_TIME, "MIN(NULLIF(" + duration
+                + ", 0)) AS " + GameContract.GamesSummary.COLUMN_NAME_SHORTEST_TIME);
+        summaryProjectionMap.put(GameContract.GamesSummary.COLUMN_NAME_LONGEST_WIN_STREAK, "(SELECT MAX(streak) FROM "
+                + "(SELECT " + streak + " AS streak FROM " + losses + ")) AS "
+                + GameContract.GamesSummary.COLUMN_NAME_LONGEST_WIN_STREAK);
+        return summaryProjectionMap;
+    }
+
     /**
      * Creates and initializes the URI matcher
      *
@@ -173,18 +374,84 @@ public class GameProvider extends ContentProvider {
         final UriMatcher matcher = new UriMatcher(UriMatcher.NO_MATCH);
         matcher.addURI(GameContract.AUTHORITY, GameContract.Games.TABLE_NAME, GameProvider.GAMES);
         matcher.addURI(GameContract.AUTHORITY, GameContract.Games.TABLE_NAME + "/#", GameProvider.GAME_ID);
+        matcher.addURI(GameContract.AUTHORITY, GameContract.Journal.TABLE_NAME, GameProvider.JOURNAL);
+        matcher.addURI(GameContract.AUTHORITY, GameContract.Games.TABLE_NAME + "/summary", GameProvider.SUMMARY);
         return matcher;
     }
 
+    /**
+     * Copies the given game values, filling in the start time (now) and synced (false) columns when not given
+     *
+     * @param initialValues Values of the game to insert, possibly null
+     * @return A copy of the values, with every required column
+     */
+    private static ContentValues withDefaults(final ContentValues initialValues) {
+        ContentValues values;
+        if (initialValues != null)
+            values = new ContentValues(initialValues);
+        else
+            values = new ContentValues();
+        if (!values.containsKey(GameContract.Games.COLUMN_NAME_START_TIME))
+            values.put(GameContract.Games.COLUMN_NAME_START_TIME, System.currentTimeMillis());
+        if (!values.containsKey(GameContract.Games.COLUMN_NAME_SYNCED))
+            values.put(GameContract.Games.COLUMN_NAME_SYNCED, false);
+        return values;
+    }
+
     /**
      * An identity all column projection mapping
      */
     final HashMap<String, String> allColumnProjectionMap = GameProvider.buildAllColumnProjectionMap();
+    /**
+     * An identity projection mapping of all columns of a single game, including the replay
+     */
+    final HashMap<String, String> gameIdColumnProjectionMap = GameProvider.buildGameIdColumnProjectionMap();
+    /**
+     * A projection mapping of the games summary columns to their aggregates
+     */
+    final HashMap<String, String> summaryProjectionMap = GameProvider.buildSummaryProjectionMap();
     /**
      * Handle to a new DatabaseHelper.
      */
     private DatabaseHelper databaseHelper;
 
+    /**
+     * Inserts the given games inside a single transaction, updating the game started at the same time instead where
+     * there is one, through compiled statements rather than a separate insert (and query and update on conflict) per
+     * game. Other URIs are inserted one at a time, as by default
+     *
+     * @return The number of games inserted or updated
+     * @see android.content.ContentProvider#bulkInsert(android.net.Uri, android.content.ContentValues[])
+     */
+    @Override
+    public synchronized int bulkInsert(@NonNull final Uri uri, @NonNull final ContentValues[] values) {
+        if (GameProvider.uriMatcher.match(uri) != GameProvider.GAMES)
+            return super.bulkInsert(uri, values);
+        final SQLiteDatabase db = databaseHelper.getWritableDatabase();
+        int count = 0;
+        db.beginTransaction();
+        try {
+            final GameUpserter upserter = new GameUpserter(db);
+            try {
+                for (final ContentValues initialValues : values)
+                    if (upserter.upsert(GameProvider.withDefaults(initialValues)))
+                        count++;
+            } finally {
+                upserter.close();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        if (count > 0) {
+            if (mBatchOperationOngoing)
+                mPendingNotificationUris.add(uri);
+            else
+                getContext().getContentResolver().notifyChange(uri, null);
+        }
+        return count;
+    }
+
     @Override
     public int delete(@NonNull final Uri uri, final String where, final String[] whereArgs) {
         // Opens the database object in "write" mode.
@@ -206,6 +473,9 @@ public class GameProvider extends ContentProvider {
                         BaseColumns._ID + " = " + ContentUris.parseId(uri), where);
                 count = db.delete(GameContract.Games.TABLE_NAME, finalWhere, whereArgs);
                 break;
+            case JOURNAL:
+                count = db.delete(GameContract.Journal.TABLE_NAME, where, whereArgs);
+                break;
             default:
                 throw new IllegalArgumentException("Unknown URI " + uri);
         }
@@ -218,6 +488,15 @@ public class GameProvider extends ContentProvider {
         return count;
     }
 
+    /**
+     * Getter for the DatabaseHelper of this provider, for tests which change the database (i.e., its indexes) directly
+     *
+     * @return The DatabaseHelper of this provider
+     */
+    DatabaseHelper getDatabaseHelper() {
+        return databaseHelper;
+    }
+
     @Override
     public String getType(@NonNull final Uri uri) {
         /**
@@ -232,6 +511,14 @@ public class GameProvider extends ContentProvider {
                 // If the pattern is for game IDs, returns the game ID content
                 // type.
                 return GameContract.Games.CONTENT_ITEM_TYPE;
+            case JOURNAL:
+                // If the pattern is for the journal, returns the journal
+                // content type.
+                return GameContract.Journal.CONTENT_TYPE;
+            case SUMMARY:
+                // If the pattern is for the games summary, returns the
+                // summary content type.
+                return GameContract.GamesSummary.CONTENT_ITEM_TYPE;
             default:
                 throw new IllegalArgumentException("Unknown URI " + uri);
         }
@@ -239,19 +526,20 @@ public class GameProvider extends ContentProvider {
 
     @Override
     public Uri insert(@NonNull final Uri uri, final ContentValues initialValues) {
+        if (GameProvider.uriMatcher.match(uri) == GameProvider.JOURNAL) {
+            // Journal moves are appended once per move and nothing observes the journal, so skip the change
+            // notification
+            final long rowId = databaseHelper.getWritableDatabase().insert(GameContract.Journal.TABLE_NAME, null,
+                    initialValues);
+            if (rowId > 0)
+                return ContentUris.withAppendedId(GameContract.Journal.CONTENT_URI, rowId);
+            throw new SQLException("Failed to insert row into " + uri);
+        }
         // Validates the incoming URI. Only the full provider URI is allowed for
         // inserts.
         if (GameProvider.uriMatcher.match(uri) != GameProvider.GAMES)
             throw new IllegalArgumentException("Unknown URI " + uri);
-        ContentValues values;
-        if (initialValues != null)
-            values = new ContentValues(initialValues);
-        else
-            values = new ContentValues();
-        if (!values.containsKey(GameContract.Games.COLUMN_NAME_START_TIME))
-            values.put(GameContract.Games.COLUMN_NAME_START_TIME, System.currentTimeMillis());
-        if (!values.containsKey(GameContract.Games.COLUMN_NAME_SYNCED))
-            values.put(GameContract.Games.COLUMN_NAME_SYNCED, false);
+        final ContentValues values = GameProvider.withDefaults(initialValues);
         final SQLiteDatabase db = databaseHelper.getWritableDatabase();
         final long rowId = db.insertWithOnConflict(GameContract.Games.TABLE_NAME,
                 GameContract.Games.COLUMN_NAME_START_TIME, values, SQLiteDatabase.CONFLICT_IGNORE);
@@ -303,18 +591,35 @@ public class GameProvider extends ContentProvider {
         switch (GameProvider.uriMatcher.match(uri)) {
             case GAMES:
                 break;
+            case JOURNAL:
+                qb.setTables(GameContract.Journal.TABLE_NAME);
+                qb.setProjectionMap(null);
+                if (TextUtils.isEmpty(sortOrder))
+                    finalSortOrder = GameContract.Journal.DEFAULT_SORT_ORDER;
+                break;
             case GAME_ID:
                 // If the incoming URI is for a single game identified by its
                 // ID, appends "_ID = <gameID>" to the where clause, so that it
                 // selects that single game
+                qb.setProjectionMap(gameIdColumnProjectionMap);
                 qb.appendWhere(BaseColumns._ID + "=" + uri.getLastPathSegment());
                 break;
+            case SUMMARY:
+                // The summary is a single row of aggregates over every game,
+                // so neither a selection nor a sort order applies
+                if (!TextUtils.isEmpty(selection) || !TextUtils.isEmpty(sortOrder))
+                    throw new IllegalArgumentException("Selection and sort order are not supported for " + uri);
+                qb.setProjectionMap(summaryProjectionMap);
+                finalSortOrder = null;
+                break;
             default:
                 throw new IllegalArgumentException("Unknown URI " + uri);
         }
         final SQLiteDatabase db = databaseHelper.getReadableDatabase();
         final Cursor c = qb.query(db, projection, selection, selectionArgs, null, null, finalSortOrder, null);
-        c.setNotificationUri(getContext().getContentResolver(), uri);
+        // The summary changes with any game, so it is notified along with the games
+        c.setNotificationUri(getContext().getContentResolver(),
+                GameProvider.uriMatcher.match(uri) == GameProvider.SUMMARY ? GameContract.Games.CONTENT_URI : uri);
         return c;
     }
 
@@ -0,0 +1,18 @@
+package com.github.triplesolitaire.simulator;
+
+import com.github.triplesolitaire.engine.Game;
+
+/**
+ * Only clicks the stock, leaving all other moves to auto flip and OBVIOUS auto play
+ */
+public class AutoPlayStrategy implements Strategy {
+    @Override
+    public void play(final Game game) {
+        game.setAutoFlip(true);
+        game.setAutoPlayMode(Game.AutoPlayMode.OBVIOUS);
+        final StockClicker stockClicker = new StockClicker();
+        while (!game.isWon())
+            if (!stockClicker.click(game))
+                return;
+    }
+}
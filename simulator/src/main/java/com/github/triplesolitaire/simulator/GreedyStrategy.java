@@ -0,0 +1,111 @@
+package com.github.triplesolitaire.simulator;
+
+import com.github.triplesolitaire.engine.Game;
+import com.github.triplesolitaire.engine.Move;
+
+/**
+ * Always makes the first available move in the following order, without looking ahead:
+ * <ol>
+ * <li>Flipping over a face down card</li>
+ * <li>Playing a card to the foundation</li>
+ * <li>Moving a full cascade to uncover a face down card</li>
+ * <li>Moving the top waste card to a lane</li>
+ * <li>Clicking the stock</li>
+ * </ol>
+ * Every move other than clicking the stock makes progress, so the strategy ends once a full pass through the stock
+ * finds nothing to play.
+ */
+public class GreedyStrategy implements Strategy {
+    /**
+     * Whether the given lane accepts the given card (or cascade starting with the card)
+     *
+     * @param game      Game being played
+     * @param laneIndex One-based index (1 through 13)
+     * @param card      Card to drop
+     * @return Whether the lane accepts the card
+     */
+    private static boolean accepts(final Game game, final int laneIndex, final int card) {
+        if (game.getCascadeSize(laneIndex) == 0 && game.getStackSize(laneIndex) == 0)
+            return Game.acceptLaneDrop(laneIndex, card);
+        return game.acceptCascadeDrop(laneIndex, card);
+    }
+
+    /**
+     * Flips over the first face down card which is no longer covered
+     *
+     * @param game Game being played
+     * @return Whether a card was flipped
+     */
+    private static boolean flip(final Game game) {
+        for (int laneIndex = 1; laneIndex <= 13; laneIndex++)
+            if (game.getCascadeSize(laneIndex) == 0 && game.getStackSize(laneIndex) > 0) {
+                game.move(new Move(Move.Type.FLIP, laneIndex));
+                return true;
+            }
+        return false;
+    }
+
+    /**
+     * Plays the first top cascade card (or the top waste card) which can be played to the foundation
+     *
+     * @param game Game being played
+     * @return Whether a card was played
+     */
+    private static boolean playToFoundation(final Game game) {
+        for (int laneIndex = 1; laneIndex <= 13; laneIndex++)
+            if (game.attemptAutoMoveFromCascadeToFoundation(laneIndex))
+                return true;
+        return game.attemptAutoMoveFromWasteToFoundation();
+    }
+
+    /**
+     * Moves the top waste card to the first lane which accepts it
+     *
+     * @param game Game being played
+     * @return Whether the waste card was moved
+     */
+    private static boolean playWaste(final Game game) {
+        if (game.isWasteEmpty())
+            return false;
+        final int card = game.getWasteCard(0);
+        for (int laneIndex = 1; laneIndex <= 13; laneIndex++)
+            if (accepts(game, laneIndex, card)) {
+                game.move(new Move(Move.Type.PLAYER_MOVE, laneIndex, 0, card));
+                return true;
+            }
+        return false;
+    }
+
+    /**
+     * Moves the first full cascade covering a face down card to the first other lane which accepts it
+     *
+     * @param game Game being played
+     * @return Whether a cascade was moved
+     */
+    private static boolean uncoverStack(final Game game) {
+        for (int fromIndex = 1; fromIndex <= 13; fromIndex++) {
+            final int cascadeSize = game.getCascadeSize(fromIndex);
+            if (cascadeSize == 0 || game.getStackSize(fromIndex) == 0)
+                continue;
+            final int bottomCard = game.getCascadeCard(fromIndex, 0);
+            for (int toIndex = 1; toIndex <= 13; toIndex++)
+                if (toIndex != fromIndex && accepts(game, toIndex, bottomCard)) {
+                    game.move(new Move(Move.Type.PLAYER_MOVE, toIndex, fromIndex, game.buildCascadeString(fromIndex,
+                            cascadeSize)));
+                    return true;
+                }
+        }
+        return false;
+    }
+
+    @Override
+    public void play(final Game game) {
+        game.setAutoFlip(false);
+        game.setAutoPlayMode(Game.AutoPlayMode.NEVER);
+        final StockClicker stockClicker = new StockClicker();
+        while (!game.isWon())
+            if (!flip(game) && !playToFoundation(game) && !uncoverStack(game) && !playWaste(game)
+                    && !stockClicker.click(game))
+                return;
+    }
+}
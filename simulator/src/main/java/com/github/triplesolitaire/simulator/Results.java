@@ -0,0 +1,48 @@
+package com.github.triplesolitaire.simulator;
+
+/**
+ * Totals of a set of simulated games
+ */
+class Results {
+    /**
+     * Number of games played
+     */
+    int games = 0;
+    /**
+     * Total number of moves made across all games
+     */
+    long moves = 0;
+    /**
+     * Number of games won
+     */
+    int wins = 0;
+    /**
+     * Total number of moves made across won games
+     */
+    long wonMoves = 0;
+
+    /**
+     * Adds the totals of the given results to these results
+     *
+     * @param other Results to add
+     */
+    void add(final Results other) {
+        games += other.games;
+        moves += other.moves;
+        wins += other.wins;
+        wonMoves += other.wonMoves;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (!(o instanceof Results))
+            return false;
+        final Results other = (Results) o;
+        return games == other.games && moves == other.moves && wins == other.wins && wonMoves == other.wonMoves;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * (31 * games + (int) moves) + wins) + (int) wonMoves;
+    }
+}
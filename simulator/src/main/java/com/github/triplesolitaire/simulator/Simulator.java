@@ -0,0 +1,189 @@
+package com.github.triplesolitaire.simulator;
+
+import com.github.triplesolitaire.engine.Game;
+import com.github.triplesolitaire.engine.Solver;
+
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Command line simulator which plays a range of deals in parallel with a given {@link Strategy}, reporting the win
+ * rate, average moves and games per second. The deals are played once per thread count (1, 2, 4, ... up to the
+ * maximum) to measure how the throughput scales with the number of cores.
+ * <p/>
+ * Usage: Simulator [-games N] [-deal FIRST_DEAL] [-strategy autoplay|greedy|solver] [-threads MAX_THREADS]
+ * [-nodes SOLVER_MAX_NODES]
+ */
+public class Simulator {
+    /**
+     * Task which plays a range of deals, splitting the range in half until it is small enough to play directly
+     */
+    private static class PlayDealsTask extends RecursiveTask<Results> {
+        /**
+         * Version of the serialized form, required as ForkJoinTask is Serializable
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * Maximum number of deals played directly by a single task
+         */
+        private static final int THRESHOLD = 8;
+        /**
+         * Number of deals to play
+         */
+        private final int count;
+        /**
+         * First deal to play
+         */
+        private final long firstDeal;
+        /**
+         * Strategy to play each deal with
+         */
+        private final Strategy strategy;
+
+        /**
+         * Creates a new task
+         *
+         * @param strategy  Strategy to play each deal with
+         * @param firstDeal First deal to play
+         * @param count     Number of deals to play
+         */
+        PlayDealsTask(final Strategy strategy, final long firstDeal, final int count) {
+            this.strategy = strategy;
+            this.firstDeal = firstDeal;
+            this.count = count;
+        }
+
+        @Override
+        protected Results compute() {
+            if (count > PlayDealsTask.THRESHOLD) {
+                final int half = count / 2;
+                final PlayDealsTask left = new PlayDealsTask(strategy, firstDeal, half);
+                left.fork();
+                final Results results = new PlayDealsTask(strategy, firstDeal + half, count - half).compute();
+                results.add(left.join());
+                return results;
+            }
+            final Results results = new Results();
+            final Game game = new Game();
+            for (long deal = firstDeal; deal < firstDeal + count; deal++) {
+                game.newGame(deal);
+                strategy.play(game);
+                results.games++;
+                results.moves += game.getMoveCount();
+                if (game.isWon()) {
+                    results.wins++;
+                    results.wonMoves += game.getMoveCount();
+                }
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Parses the command line arguments, then plays the deals at each thread count and prints the results
+     *
+     * @param args Command line arguments
+     */
+    public static void main(final String[] args) {
+        int games = 1000;
+        long firstDeal = 1;
+        String strategyName = "greedy";
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        int maxNodes = Solver.DEFAULT_MAX_NODES;
+        final Strategy strategy;
+        try {
+            for (int argIndex = 0; argIndex < args.length; argIndex += 2) {
+                if (argIndex + 1 == args.length)
+                    throw new IllegalArgumentException("Missing value for " + args[argIndex]);
+                final String value = args[argIndex + 1];
+                switch (args[argIndex]) {
+                    case "-games":
+                        games = Integer.parseInt(value);
+                        break;
+                    case "-deal":
+                        firstDeal = Long.parseLong(value);
+                        break;
+                    case "-strategy":
+                        strategyName = value;
+                        break;
+                    case "-threads":
+                        maxThreads = Integer.parseInt(value);
+                        break;
+                    case "-nodes":
+                        maxNodes = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[argIndex]);
+                }
+            }
+            switch (strategyName) {
+                case "autoplay":
+                    strategy = new AutoPlayStrategy();
+                    break;
+                case "greedy":
+                    strategy = new GreedyStrategy();
+                    break;
+                case "solver":
+                    strategy = new SolverStrategy(maxNodes);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown strategy " + strategyName);
+            }
+        } catch (final RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: Simulator [-games N] [-deal FIRST_DEAL] [-strategy autoplay|greedy|solver] "
+                    + "[-threads MAX_THREADS] [-nodes SOLVER_MAX_NODES]");
+            System.exit(1);
+            return;
+        }
+        System.out.println("Strategy " + strategyName + ", deals " + firstDeal + " to " + (firstDeal + games - 1));
+        // Warm up the JIT so that the first measured run is not penalized
+        play(strategy, firstDeal, games, maxThreads);
+        System.out.println("Threads  Games/sec  Speedup  Efficiency");
+        Results results = null;
+        double singleThreadRate = 0;
+        for (int threads = 1; threads <= maxThreads; threads = threads == maxThreads ? threads + 1 : Math.min(
+                2 * threads, maxThreads)) {
+            final long start = System.nanoTime();
+            final Results threadResults = play(strategy, firstDeal, games, threads);
+            final double rate = games / ((System.nanoTime() - start) / 1e9);
+            if (threads == 1)
+                singleThreadRate = rate;
+            System.out.println(String.format(Locale.US, "%7d  %9.1f  %7.2f  %9.0f%%", threads, rate, rate
+                    / singleThreadRate, 100 * rate / singleThreadRate / threads));
+            if (results != null && !results.equals(threadResults))
+                System.out.println("Warning: results differ from the single threaded run");
+            results = threadResults;
+        }
+        System.out.println(String.format(Locale.US, "Win rate: %.1f%% (%d of %d)", 100.0 * results.wins
+                / results.games, results.wins, results.games));
+        System.out.println(String.format(Locale.US, "Average moves: %.1f (won games: %s)", (double) results.moves
+                / results.games, results.wins == 0 ? "N/A" : String.format(Locale.US, "%.1f",
+                (double) results.wonMoves / results.wins)));
+    }
+
+    /**
+     * Plays the given range of deals on a new pool with the given number of threads
+     *
+     * @param strategy  Strategy to play each deal with
+     * @param firstDeal First deal to play
+     * @param games     Number of deals to play
+     * @param threads   Number of threads to play with
+     * @return The totals of all played games
+     */
+    private static Results play(final Strategy strategy, final long firstDeal, final int games, final int threads) {
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.invoke(new PlayDealsTask(strategy, firstDeal, games));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * This class cannot be instantiated
+     */
+    private Simulator() {
+    }
+}
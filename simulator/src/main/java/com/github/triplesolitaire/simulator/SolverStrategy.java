@@ -0,0 +1,41 @@
+package com.github.triplesolitaire.simulator;
+
+import com.github.triplesolitaire.engine.Game;
+import com.github.triplesolitaire.engine.Move;
+import com.github.triplesolitaire.engine.Solver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches for a win with a {@link Solver} and plays the winning moves if one is found. Only the node budget limits the
+ * search (the time budget is effectively disabled) so that results do not depend on how many games run in parallel.
+ */
+public class SolverStrategy implements Strategy {
+    /**
+     * Solver for each simulator thread, as Solvers are not thread safe
+     */
+    private final ThreadLocal<Solver> solver;
+
+    /**
+     * Creates a new SolverStrategy
+     *
+     * @param maxNodes Maximum number of positions to search per game
+     */
+    public SolverStrategy(final int maxNodes) {
+        solver = new ThreadLocal<Solver>() {
+            @Override
+            protected Solver initialValue() {
+                return new Solver(maxNodes, TimeUnit.HOURS.toMillis(1));
+            }
+        };
+    }
+
+    @Override
+    public void play(final Game game) {
+        final Solver threadSolver = solver.get();
+        if (threadSolver.solve(game) != Solver.Result.SOLVED)
+            return;
+        for (final Move move : threadSolver.getSolution())
+            game.move(move);
+    }
+}
@@ -0,0 +1,38 @@
+package com.github.triplesolitaire.simulator;
+
+import com.github.triplesolitaire.engine.Game;
+import com.github.triplesolitaire.engine.Move;
+
+/**
+ * Clicks the stock of a game, detecting when a full pass through the stock has not changed the game
+ */
+class StockClicker {
+    /**
+     * Hash of the game the last time the waste was flipped back over into the stock
+     */
+    private long lastRecycleHash = 0;
+    /**
+     * Whether the waste has been flipped back over into the stock at least once
+     */
+    private boolean recycled = false;
+
+    /**
+     * Clicks the stock unless there are no cards to click through or nothing has changed since the last time the waste
+     * was flipped back over into the stock (i.e., another pass would just repeat the last one)
+     *
+     * @param game Game to click the stock of
+     * @return Whether the stock was clicked
+     */
+    boolean click(final Game game) {
+        if (game.isStockEmpty()) {
+            if (game.isWasteEmpty())
+                return false;
+            if (recycled && game.getHash() == lastRecycleHash)
+                return false;
+            recycled = true;
+            lastRecycleHash = game.getHash();
+        }
+        game.move(new Move(Move.Type.STOCK));
+        return true;
+    }
+}
@@ -0,0 +1,16 @@
+package com.github.triplesolitaire.simulator;
+
+import com.github.triplesolitaire.engine.Game;
+
+/**
+ * Strategy for playing a dealt game without any user input
+ */
+public interface Strategy {
+    /**
+     * Plays the given freshly dealt game until it is won or the strategy can find no more moves. Strategies are shared
+     * by all simulator threads, so implementations must be thread safe
+     *
+     * @param game Game to play
+     */
+    void play(Game game);
+}